@@ -1,9 +1,10 @@
 import axios from "axios";
+import { fetchAllPages } from "./paging";
 
 const BASE_URL = "http://localhost:8080/api/clients";
 
-// Fetch all clients
-export const fetchAllClients = () => axios.get(BASE_URL);
+// Fetch all clients, following the page cursor
+export const fetchAllClients = async () => ({ data: await fetchAllPages(BASE_URL) });
 
 // Fetch client by ID
 export const fetchClientById = (id) => axios.get(`${BASE_URL}/${id}`);
@@ -1,4 +1,5 @@
 import axios from "axios";
+import { fetchAllPages } from "./paging";
 const ORDERS_BASE = "http://localhost:8080/api/orders";
 
 const API_URL = "http://localhost:8080/api/orders"; // or use proxy
@@ -96,10 +97,17 @@ export const fetchOrdersByClient = (clientId, fromISO, toISO) => {
   const params = {};
   if (fromISO) params.from = fromISO;
   if (toISO) params.to = toISO;
-  return axios.get(`${ORDERS_BASE}/client/${clientId}`, { params }).then(r => r.data);
+  return fetchAllPages(`${ORDERS_BASE}/client/${clientId}`, params);
 };
 
 export const fetchOrderById = async (orderId) => {
   const { data } = await axios.get(`${ORDERS_BASE}/${orderId}`);
   return data; // should include items[]
-};
\ No newline at end of file
+};
+// Kitchen feed: initial snapshot, then one "order" event per change
+export function subscribeToOrders(status, { onSnapshot, onChange }) {
+  const source = new EventSource(`${API_URL}/stream?status=${encodeURIComponent(status)}`);
+  source.addEventListener("snapshot", (e) => onSnapshot(JSON.parse(e.data)));
+  source.addEventListener("order", (e) => onChange(JSON.parse(e.data)));
+  return () => source.close();
+}
@@ -0,0 +1,13 @@
+import axios from "axios";
+
+// Walk a keyset-paginated endpoint ({ items, nextCursor }) and return every item
+export async function fetchAllPages(url, params = {}, limit = 500) {
+  const all = [];
+  let after;
+  do {
+    const { data } = await axios.get(url, { params: { ...params, limit, after } });
+    all.push(...data.items);
+    after = data.nextCursor;
+  } while (after);
+  return all;
+}
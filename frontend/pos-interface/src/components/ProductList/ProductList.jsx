@@ -38,7 +38,7 @@ const ProductList = ({ selectedFamilyId, onAddToCart }) => {
           >
             <div className="product-image-wrapper">
               <img
-                src={product.imageUrl ? `http://localhost:8080${product.imageUrl}` : "/default.jpg"}
+                src={product.imageUrl ? `http://localhost:8080${product.imageUrl}?size=medium` : "/default.jpg"}
                 alt={product.name}
                 className="product-image"
                 onError={(e) => {
@@ -259,7 +259,7 @@ const CreateProduct = () => {
               <td>
                 {p.imageUrl ? (
                   <img
-                    src={`http://localhost:8080${p.imageUrl}`}
+                    src={`http://localhost:8080${p.imageUrl}?size=thumb`}
                     alt="Product"
                     style={{ width: "60px", height: "40px", objectFit: "cover" }}
                   />
@@ -4,8 +4,10 @@ import {
   fetchOrdersByStatus,
   updateOrderStatus,
   editOrder,
-  updateOrderQuantities
+  updateOrderQuantities,
+  subscribeToOrders
 } from "../api/ordersApi";
+import { fetchAllClients } from "../api/clientApi";
 
 const Orders = () => {
   const [orders, setOrders] = useState([]);
@@ -25,9 +27,8 @@ const Orders = () => {
   useEffect(() => {
     const loadClients = async () => {
       try {
-        const res = await fetch("http://localhost:8080/api/clients");
-        const data = await res.json();
-        setClients(data);
+        const res = await fetchAllClients();
+        setClients(res.data);
       } catch (err) {
         console.error("❌ Failed to load clients:", err);
       }
@@ -76,6 +77,25 @@ const Orders = () => {
     fetchOrders();
   }, [filter]); // Re-fetch whenever filter changes
 
+  // Live updates for a single status: orders that left it are dropped, new or edited ones reload the list
+  useEffect(() => {
+    if (filter === "ALL") return undefined;
+    return subscribeToOrders(filter, {
+      onSnapshot: () => {},
+      onChange: (delta) => {
+        const changed = delta.order;
+        const changedId = changed ? changed.orderId : delta.orderId;
+        if (!changed || changed.status !== filter) {
+          setOrders((prev) => prev.filter((o) => (o.orderId || o.id) !== changedId));
+          return;
+        }
+        fetchOrdersByStatus(filter)
+          .then(setOrders)
+          .catch((err) => console.error("❌ Failed to refresh orders:", err));
+      },
+    });
+  }, [filter]);
+
   const handleStatusUpdate = async (orderId, newStatus) => {
     try {
       const updated = await updateOrderStatus(orderId, newStatus);
@@ -143,7 +163,7 @@ const Orders = () => {
   };
 
   const getItemProperties = (item) => ({
-    name: item.product?.name || item.name || 'Unknown Item',
+    name: item.productName || item.product?.name || item.name || 'Unknown Item',
     price: item.unitPrice || item.price || 0,
     quantity: item.quantity || 0,
     originalId: item.orderItemId || item.id,
@@ -0,0 +1,93 @@
+package com.project.restau_management.benchmark;
+
+import com.project.restau_management.RestauManagementApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImageController against the ResourceHttpRequestHandler still mapped on /uploads/**, both serving
+ * the same files from uploads/products over the embedded Tomcat, for a full-size photo and a thumbnail.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ImageServingBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest handlerPhoto;
+    private HttpRequest controllerPhoto;
+    private HttpRequest handlerThumb;
+    private HttpRequest controllerThumb;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(RestauManagementApplication.class)
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        Path products = Paths.get(context.getEnvironment().getProperty("file.upload.dir", "uploads"), "products");
+        Files.createDirectories(products);
+
+        Random random = new Random(42);
+        byte[] photo = new byte[400 * 1024];
+        byte[] thumb = new byte[12 * 1024];
+        random.nextBytes(photo);
+        random.nextBytes(thumb);
+        Files.write(products.resolve("benchmark-photo.jpg"), photo);
+        Files.write(products.resolve("benchmark-thumb.webp"), thumb);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String base = "http://localhost:" + port;
+        handlerPhoto = HttpRequest.newBuilder(URI.create(base + "/uploads/products/benchmark-photo.jpg")).build();
+        controllerPhoto = HttpRequest.newBuilder(URI.create(base + "/products/benchmark-photo.jpg")).build();
+        handlerThumb = HttpRequest.newBuilder(URI.create(base + "/uploads/products/benchmark-thumb.webp")).build();
+        controllerThumb = HttpRequest.newBuilder(URI.create(base + "/products/benchmark-thumb.webp")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int resourceHandlerPhoto() throws Exception {
+        return fetch(handlerPhoto);
+    }
+
+    @Benchmark
+    public int imageControllerPhoto() throws Exception {
+        return fetch(controllerPhoto);
+    }
+
+    @Benchmark
+    public int resourceHandlerThumb() throws Exception {
+        return fetch(handlerThumb);
+    }
+
+    @Benchmark
+    public int imageControllerThumb() throws Exception {
+        return fetch(controllerThumb);
+    }
+
+    private int fetch(HttpRequest request) throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,69 @@
+package com.project.restau_management.benchmark;
+
+import com.project.restau_management.entity.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling the lines of an order three ways: the old path through float, chained BigDecimal
+ * arithmetic, and Money in long cents. Run with -prof gc to compare allocations per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MoneyBenchmark {
+
+    @Param({"5", "20", "100"})
+    public int lines;
+
+    private int[] quantities;
+    private BigDecimal[] decimalPrices;
+    private Money[] moneyPrices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        quantities = new int[lines];
+        decimalPrices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        for (int i = 0; i < lines; i++) {
+            quantities[i] = 1 + i % 4;
+            decimalPrices[i] = BigDecimal.valueOf(110 + i * 35L, 2);
+            moneyPrices[i] = Money.of(decimalPrices[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal floatRoundTrip() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(decimalPrices[i].floatValue());
+            BigDecimal subtotal = BigDecimal.valueOf(unitPrice.multiply(BigDecimal.valueOf(quantities[i])).floatValue());
+            total = total.add(subtotal);
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money money() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,167 @@
+package com.project.restau_management.benchmark;
+
+import com.project.restau_management.RestauManagementApplication;
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderItem;
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.CategoryRepository;
+import com.project.restau_management.repository.OrderItemRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.TableRepository;
+import com.project.restau_management.repository.UserRepository;
+import com.project.restau_management.service.MenuCatalogService;
+import com.project.restau_management.service.OrderPlacementService;
+import com.project.restau_management.service.OrderService;
+import com.project.restau_management.service.ProductService;
+import com.project.restau_management.service.TableOccupancyService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database-backed order hot paths on embedded H2: placing a 5 line order (OrderController.createOrder),
+ * changing its quantities (OrderService.updateOrderQuantities), looking a product up through the
+ * repository and the menu snapshot, and seating then freeing a table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderPathBenchmark {
+
+    private static final int PRODUCTS = 500;
+    private static final int LINES = 5;
+
+    private ConfigurableApplicationContext context;
+    private OrderPlacementService orderPlacementService;
+    private OrderService orderService;
+    private ProductService productService;
+    private MenuCatalogService menuCatalogService;
+    private TableOccupancyService tableOccupancyService;
+
+    private List<Integer> productIds;
+    private OrderRequestDTO orderRequest;
+    private long openOrderId;
+    private List<OrderItemDTO> quantityUpdate;
+    private int tableId;
+    private int quantity;
+    private int lookup;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RestauManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+        orderPlacementService = context.getBean(OrderPlacementService.class);
+        orderService = context.getBean(OrderService.class);
+        productService = context.getBean(ProductService.class);
+        menuCatalogService = context.getBean(MenuCatalogService.class);
+        tableOccupancyService = context.getBean(TableOccupancyService.class);
+
+        User user = new User();
+        user.setUsername("bench-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("secret");
+        user = context.getBean(UserRepository.class).save(user);
+
+        Category category = context.getBean(CategoryRepository.class).save(new Category(0, "Carte", null));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Plat " + i);
+            product.setPrice(BigDecimal.valueOf(500 + i * 7 % 1500, 2));
+            product.setCategory(category);
+            products.add(product);
+        }
+        products = context.getBean(ProductRepository.class).saveAll(products);
+        productIds = products.stream().map(Product::getProductId).toList();
+        menuCatalogService.refresh();
+
+        RestaurantTable table = new RestaurantTable();
+        table.setTableNumber(9000);
+        table.setCapacity(4);
+        table.setAvailable(true);
+        tableId = context.getBean(TableRepository.class).save(table).getTableId();
+
+        List<OrderItemDTO> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = products.get(i * 37 % PRODUCTS);
+            OrderItemDTO line = new OrderItemDTO();
+            line.setProductId(product.getProductId().longValue());
+            line.setQuantity(1 + i);
+            line.setUnitPrice(Money.of(product.getPrice()));
+            lines.add(line);
+        }
+        orderRequest = new OrderRequestDTO();
+        orderRequest.setUserId((long) user.getUserId());
+        orderRequest.setStatus(OrderStatus.ON_GOING);
+        orderRequest.setDescription("benchmark");
+        orderRequest.setItems(lines);
+
+        Order open = orderPlacementService.placeOrder(orderRequest);
+        openOrderId = open.getOrderId();
+        quantityUpdate = new ArrayList<>();
+        for (OrderItem item : context.getBean(OrderItemRepository.class).findByOrder(open)) {
+            OrderItemDTO line = new OrderItemDTO();
+            line.setOrderItemId((long) item.getOrderItemId());
+            line.setQuantity(item.getQuantity());
+            quantityUpdate.add(line);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order placeOrder() {
+        return orderPlacementService.placeOrder(orderRequest);
+    }
+
+    @Benchmark
+    public Order updateOrderQuantities() {
+        // Alternate the quantities so every call really changes the lines and the rollups
+        quantity = quantity % 9 + 1;
+        for (OrderItemDTO line : quantityUpdate) {
+            line.setQuantity(quantity);
+        }
+        return orderService.updateOrderQuantities(openOrderId, quantityUpdate);
+    }
+
+    @Benchmark
+    public Optional<Product> productByIdRepository() {
+        return productService.getProductById(nextProductId());
+    }
+
+    @Benchmark
+    public Optional<Product> productByIdSnapshot() {
+        return menuCatalogService.snapshot().getProduct(nextProductId());
+    }
+
+    @Benchmark
+    public boolean claimAndReleaseTable() {
+        return tableOccupancyService.claim(tableId) & tableOccupancyService.release(tableId);
+    }
+
+    private int nextProductId() {
+        lookup = (lookup + 1) % PRODUCTS;
+        return productIds.get(lookup);
+    }
+}
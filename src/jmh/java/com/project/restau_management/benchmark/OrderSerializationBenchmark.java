@@ -0,0 +1,100 @@
+package com.project.restau_management.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.restau_management.dto.OrderResponseDTO;
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderItem;
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response mapping of an order: OrderResponseDTO.fromEntity and Jackson serialization of the entity
+ * with its items and products, the body of the order detail and list endpoints. No database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderSerializationBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int lines;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Same defaults Spring Boot applies to the mapper behind the REST controllers
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        User user = new User();
+        user.setUserId(1);
+        user.setUsername("caisse-1");
+        user.setEmail("caisse-1@example.com");
+
+        RestaurantTable table = new RestaurantTable();
+        table.setTableId(12);
+        table.setTableNumber(12);
+        table.setCapacity(4);
+
+        Category category = new Category(1, "Plats", null);
+
+        order = new Order();
+        order.setOrderId(4242);
+        order.setDescription("Table 12, sans gluten");
+        order.setStatus(OrderStatus.ON_GOING);
+        order.setCreatedAt(LocalDateTime.of(2026, 10, 18, 12, 30));
+        order.setUser(user);
+        order.setTable(table);
+
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setProductId(100 + i);
+            product.setName("Plat du jour " + i);
+            product.setDescription("Préparé chaque matin, recette n°" + i);
+            product.setPrice(BigDecimal.valueOf(1250 + i * 50, 2));
+            product.setImageUrl("/products/plat-" + i + ".jpg");
+            product.setCategory(category);
+
+            OrderItem item = new OrderItem();
+            item.setOrderItemId(1000 + i);
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(1 + i % 3);
+            item.setUnitPrice(Money.of(product.getPrice()));
+            item.setSubtotal(item.getUnitPrice().times(item.getQuantity()));
+            order.getItems().add(item);
+            total = total.plus(item.getSubtotal());
+        }
+        order.setTotalAmount(total);
+    }
+
+    @Benchmark
+    public OrderResponseDTO responseDtoFromEntity() {
+        return OrderResponseDTO.fromEntity(order);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderWithItems() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseDto() throws Exception {
+        return objectMapper.writeValueAsBytes(OrderResponseDTO.fromEntity(order));
+    }
+}
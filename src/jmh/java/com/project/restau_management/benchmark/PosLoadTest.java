@@ -0,0 +1,205 @@
+package com.project.restau_management.benchmark;
+
+import com.project.restau_management.RestauManagementApplication;
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.CategoryRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.TableRepository;
+import com.project.restau_management.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the POS read and write paths: loadtest.clients terminals (2000 by
+ * default) each send a request, wait for the answer, pause loadtest.think-ms and go again, for
+ * loadtest.seconds after a warm-up. Run it once with loadtest.virtual=false and once with
+ * loadtest.virtual=true with -Ptoolchain-jdk21 to compare the latency percentiles of the two thread modes.
+ * loadtest.logging picks the logging setup: quiet (WARN only, the default), dev (show-sql and SQL
+ * debug output, as in application.properties) or prod (the prod profile), to compare their throughput.
+ * Uses the embedded H2 unless spring.datasource.* are passed as system properties.
+ */
+public class PosLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 2000);
+        int seconds = Integer.getInteger("loadtest.seconds", 30);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+        int thinkMs = Integer.getInteger("loadtest.think-ms", 100);
+        boolean virtual = Boolean.getBoolean("loadtest.virtual");
+        String logging = System.getProperty("loadtest.logging", "quiet");
+
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0", "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.max-connections=" + (clients + 1000)));
+        arguments.addAll(loggingArguments(logging));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RestauManagementApplication.class)
+                .run(arguments.toArray(String[]::new));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Fixture fixture = seed(context);
+            String base = "http://localhost:" + port;
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            String menuEtag = client.send(HttpRequest.newBuilder(URI.create(base + "/api/products")).build(),
+                    HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag").orElse("");
+
+            long warmupEnd = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+            long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+            AtomicLong errors = new AtomicLong();
+            long[][] latencies = new long[clients][];
+            int[] counts = new int[clients];
+            CountDownLatch done = new CountDownLatch(clients);
+
+            for (int c = 0; c < clients; c++) {
+                int id = c;
+                Thread terminal = new Thread(null, () -> {
+                    long[] recorded = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    try {
+                        while (System.nanoTime() < end) {
+                            HttpRequest request = nextRequest(base, fixture, menuEtag, random);
+                            long start = System.nanoTime();
+                            try {
+                                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                                if (status >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            long finished = System.nanoTime();
+                            if (start >= warmupEnd) {
+                                if (count == recorded.length) {
+                                    recorded = Arrays.copyOf(recorded, count * 2);
+                                }
+                                recorded[count++] = finished - start;
+                            }
+                            Thread.sleep(random.nextInt(thinkMs / 2, thinkMs * 3 / 2 + 1));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        latencies[id] = recorded;
+                        counts[id] = count;
+                        done.countDown();
+                    }
+                }, "terminal-" + c, 256 * 1024);
+                terminal.start();
+            }
+            done.await();
+
+            long total = Arrays.stream(counts).asLongStream().sum();
+            long[] all = new long[Math.toIntExact(total)];
+            int offset = 0;
+            for (int c = 0; c < clients; c++) {
+                System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+                offset += counts[c];
+            }
+            Arrays.sort(all);
+
+            System.out.printf("%s threads, %s logging, %d clients, %ds (JDK %s)%n", virtual ? "virtual" : "platform",
+                    logging, clients, seconds, Runtime.version());
+            System.out.printf("requests %d (%.0f/s), errors %d%n", total, (double) total / seconds, errors.get());
+            System.out.printf("p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                    percentile(all, 0.999), all.length > 0 ? all[all.length - 1] / 1e6 : 0);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<String> loggingArguments(String logging) {
+        return switch (logging) {
+            case "quiet" -> List.of("--logging.level.root=WARN");
+            case "dev" -> List.of("--spring.jpa.show-sql=true", "--logging.level.org.hibernate.SQL=DEBUG");
+            case "prod" -> List.of("--spring.profiles.active=prod");
+            default -> throw new IllegalArgumentException("loadtest.logging must be quiet, dev or prod: " + logging);
+        };
+    }
+
+    private record Fixture(int userId, List<Integer> productIds, List<BigDecimal> prices) {
+    }
+
+    // A terminal mostly reads: the menu (revalidated), free tables and open orders; one request
+    // in five places a takeaway order
+    private static HttpRequest nextRequest(String base, Fixture fixture, String menuEtag, ThreadLocalRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 35) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/products")).header("If-None-Match", menuEtag).build();
+        }
+        if (roll < 60) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/tables/available")).build();
+        }
+        if (roll < 80) {
+            return HttpRequest.newBuilder(URI.create(base + "/api/orders?limit=20")).build();
+        }
+        int product = random.nextInt(fixture.productIds().size());
+        String body = "{\"userId\":" + fixture.userId() + ",\"status\":\"ON GOING\",\"description\":\"load test\","
+                + "\"items\":[{\"productId\":" + fixture.productIds().get(product) + ",\"quantity\":2,"
+                + "\"unitPrice\":" + fixture.prices().get(product) + "}]}";
+        return HttpRequest.newBuilder(URI.create(base + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static Fixture seed(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("pos-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("secret");
+        user = context.getBean(UserRepository.class).save(user);
+
+        Category category = context.getBean(CategoryRepository.class).save(new Category(0, "Carte", null));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Product product = new Product();
+            product.setName("Plat " + i);
+            product.setPrice(BigDecimal.valueOf(5 + i % 20));
+            product.setCategory(category);
+            products.add(product);
+        }
+        products = context.getBean(ProductRepository.class).saveAll(products);
+
+        List<RestaurantTable> tables = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            RestaurantTable table = new RestaurantTable();
+            table.setTableNumber(1000 + i);
+            table.setCapacity(2 + i % 6);
+            table.setAvailable(true);
+            tables.add(table);
+        }
+        context.getBean(TableRepository.class).saveAll(tables);
+
+        return new Fixture(user.getUserId(),
+                products.stream().map(Product::getProductId).toList(),
+                products.stream().map(Product::getPrice).toList());
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,81 @@
+package com.project.restau_management.benchmark;
+
+import com.project.restau_management.RestauManagementApplication;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory search index against the LIKE '%x%' repository query, over a 10k item catalog on embedded H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductSearchBenchmark {
+
+    private static final String[] DISHES = {"Croissant", "Crème brûlée", "Café", "Tarte", "Croque", "Salade",
+            "Quiche", "Gâteau", "Chocolat", "Thé", "Jus", "Soupe", "Omelette", "Crêpe", "Galette", "Madeleine"};
+    private static final String[] STYLES = {"maison", "au beurre", "du jour", "glacé", "à l'orange", "aux amandes",
+            "lorraine", "niçoise", "au citron", "vanille", "caramel", "pistache", "framboise", "forestière"};
+
+    @Param({"crois", "creme brul", "croisant"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private List<Product> catalog;
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RestauManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+        productRepository = context.getBean(ProductRepository.class);
+
+        List<Product> generated = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Product product = new Product();
+            product.setName(DISHES[i % DISHES.length] + " " + STYLES[(i / DISHES.length) % STYLES.length] + " " + i);
+            product.setDescription("Préparé chaque matin, recette n°" + i);
+            product.setPrice(BigDecimal.valueOf(2 + i % 20));
+            generated.add(product);
+        }
+        catalog = productRepository.saveAll(generated);
+        index = ProductSearchIndex.build(catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> searchIndex() {
+        return index.search(query, 0, 20);
+    }
+
+    @Benchmark
+    public List<Product> repositoryLike() {
+        // Baseline: only the first word, since the LIKE query cannot match several words or typos
+        return productRepository.findByNameContainingIgnoreCase(query.split(" ")[0]);
+    }
+
+    // Cost paid on every menu write when the catalog snapshot is swapped
+    @Benchmark
+    public ProductSearchIndex rebuildIndex() {
+        return ProductSearchIndex.build(catalog);
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.restau_management.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so a request can tell how
+ * many it issued. Statements sent through JdbcTemplate (the order item batch insert) are not seen.
+ */
+public class HibernateStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<long[]> count = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        count.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Statements prepared on this thread so far; callers take the difference of two readings
+     * @return A running total that never resets
+     */
+    public long current() {
+        return count.get()[0];
+    }
+}
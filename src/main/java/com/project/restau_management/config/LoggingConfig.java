@@ -0,0 +1,20 @@
+package com.project.restau_management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoggingConfig {
+
+    /**
+     * Slow statements with their bound values, enabled by setting logging.slow-query.threshold-ms
+     * (the prod profile does). Static so the DataSource is wrapped before anything else uses it.
+     */
+    @Bean
+    @ConditionalOnProperty("logging.slow-query.threshold-ms")
+    public static SlowQueryLogger slowQueryLogger(@Value("${logging.slow-query.threshold-ms}") long thresholdMs) {
+        return new SlowQueryLogger(thresholdMs);
+    }
+}
@@ -0,0 +1,32 @@
+package com.project.restau_management.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics that Actuator does not record on its own. Endpoint latency (http.server.requests),
+ * repository calls (spring.data.repository.invocations) and pool waits (hikaricp.connections.acquire)
+ * are auto-configured; their histograms are switched on in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernateStatementCounter hibernateStatementCounter() {
+        return new HibernateStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(HibernateStatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    public StatementMetricsFilter statementMetricsFilter(HibernateStatementCounter statementCounter,
+                                                         MeterRegistry meterRegistry) {
+        return new StatementMetricsFilter(statementCounter, meterRegistry);
+    }
+}
@@ -0,0 +1,123 @@
+package com.project.restau_management.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the application DataSource and logs, on the sql.slow logger, every statement that takes
+ * longer than the threshold, with the values bound to it. Faster statements are never formatted,
+ * so the cost on the hot path is a clock read and remembering the bound values.
+ */
+public class SlowQueryLogger implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger("sql.slow");
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final long thresholdNanos;
+
+    public SlowQueryLogger(long thresholdMs) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                    (p, method, args) -> {
+                        Object result = invoke(dataSource, method, args);
+                        return result instanceof Connection connection ? connection(connection) : result;
+                    });
+        }
+        return bean;
+    }
+
+    private Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (p, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    // prepareCall is left alone: nothing in the app uses stored procedures
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                        return statement(PreparedStatement.class, statement, (String) args[0]);
+                    }
+                    if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                        return statement(Statement.class, statement, null);
+                    }
+                    return result;
+                });
+    }
+
+    private <T extends Statement> T statement(Class<T> type, T target, String preparedSql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        int[] batched = new int[1];
+        Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.equals("addBatch")) {
+                        batched[0]++;
+                    }
+                    if (!EXECUTE_METHODS.contains(name)) {
+                        return invoke(target, method, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(target, method, args);
+                    } finally {
+                        long elapsed = System.nanoTime() - start;
+                        if (elapsed >= thresholdNanos && log.isWarnEnabled()) {
+                            String sql = preparedSql != null ? preparedSql : args != null ? String.valueOf(args[0]) : "batch";
+                            log.warn("{} ms{}: {}{}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                                    batched[0] > 0 ? " (batch of " + batched[0] + ", last values)" : "",
+                                    sql, format(parameters));
+                        }
+                        if (name.startsWith("executeBatch") || name.startsWith("executeLargeBatch")) {
+                            batched[0] = 0;
+                        }
+                    }
+                });
+        return type.cast(proxy);
+    }
+
+    private static String format(Map<Integer, Object> parameters) {
+        if (parameters.isEmpty()) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(" [");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (out.length() > 2) {
+                out.append(", ");
+            }
+            Object value = parameter.getValue();
+            String text = value instanceof byte[] bytes ? "<" + bytes.length + " bytes>" : String.valueOf(value);
+            out.append(text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text);
+        }
+        return out.append(']').toString();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
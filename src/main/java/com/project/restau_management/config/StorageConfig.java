@@ -0,0 +1,41 @@
+package com.project.restau_management.config;
+
+import com.project.restau_management.storage.BlobStore;
+import com.project.restau_management.storage.LocalBlobStore;
+import com.project.restau_management.storage.MappedBlobStore;
+import com.project.restau_management.storage.S3BlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+@Configuration
+public class StorageConfig {
+
+    /**
+     * The store behind uploads, picked with storage.type: local (files under file.upload.dir),
+     * mapped (the same, read through memory mapping) or s3 (a bucket of an S3-compatible store)
+     */
+    @Bean
+    public BlobStore blobStore(@Value("${storage.type:local}") String type,
+                               @Value("${file.upload.dir:uploads}") String uploadDir,
+                               @Value("${storage.s3.endpoint:}") String endpoint,
+                               @Value("${storage.s3.bucket:}") String bucket,
+                               @Value("${storage.s3.region:us-east-1}") String region,
+                               @Value("${storage.s3.access-key:}") String accessKey,
+                               @Value("${storage.s3.secret-key:}") String secretKey) {
+        return switch (type) {
+            case "local" -> new LocalBlobStore(Paths.get(uploadDir));
+            case "mapped" -> new MappedBlobStore(Paths.get(uploadDir));
+            case "s3" -> {
+                if (endpoint.isBlank() || bucket.isBlank()) {
+                    throw new IllegalStateException("storage.type=s3 needs storage.s3.endpoint and storage.s3.bucket");
+                }
+                yield new S3BlobStore(URI.create(endpoint), bucket, region, accessKey, secretKey);
+            }
+            default -> throw new IllegalStateException("Unknown storage.type: " + type + " (use local, mapped or s3)");
+        };
+    }
+}
@@ -1,7 +1,13 @@
 package com.project.restau_management.config;
 
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.entity.PaymentStatus;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,22 +19,39 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${file.upload.dir:uploads}")
     private String uploadDir;
 
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Open-in-view for regular requests only: a long-lived SSE stream or export would otherwise
+        // pin a pooled connection for as long as the client stays connected, and images never need one
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns("/api/orders/stream", "/api/orders/export", "/api/payments/export",
+                        "/media/**", "/products/**", "/product-families/**");
+    }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        // Path and query parameters accept the same labels as the JSON bodies, e.g. ?status=ON GOING
+        registry.addConverter(String.class, OrderStatus.class, OrderStatus::of);
+        registry.addConverter(String.class, PaymentStatus.class, PaymentStatus::of);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Serve uploaded files statically
         String uploadPath = Paths.get(uploadDir).toAbsolutePath().toUri().toString();
+        // toUri() only ends with a slash if the directory already exists at startup
+        if (!uploadPath.endsWith("/")) {
+            uploadPath += "/";
+        }
 
-        // Handler for product images
-        registry.addResourceHandler("/products/**")
-                .addResourceLocations(uploadPath + "products/")
-                .setCachePeriod(3600); // Cache for 1 hour
-
-        registry.addResourceHandler("/product-families/**")
-                .addResourceLocations(uploadPath + "product-families/")
-                .setCachePeriod(3600); // Cache for 1 hour
-
+        // Images under /media, /products and /product-families are served by ImageController
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations(uploadPath)
                 .setCachePeriod(3600);
     }
-}
\ No newline at end of file
+}
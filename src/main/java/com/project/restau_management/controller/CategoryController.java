@@ -2,6 +2,9 @@ package com.project.restau_management.controller;
 
 import com.project.restau_management.entity.Category;
 import com.project.restau_management.service.CategoryService;
+import com.project.restau_management.service.MenuCatalogService;
+import com.project.restau_management.service.MenuSnapshot;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -12,19 +15,25 @@ import java.util.Optional;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final MenuCatalogService menuCatalogService;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, MenuCatalogService menuCatalogService) {
         this.categoryService = categoryService;
+        this.menuCatalogService = menuCatalogService;
     }
 
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<Category>> getAllCategories() {
+        MenuSnapshot menu = menuCatalogService.snapshot();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(menu.getETag())
+                .body(menu.getCategories());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Category> getCategoryById(@PathVariable int id) {
-        return categoryService.getCategoryById(id)
+        return menuCatalogService.snapshot().getCategory(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -1,5 +1,6 @@
 package com.project.restau_management.controller;
 
+import com.project.restau_management.dto.PageResponse;
 import com.project.restau_management.entity.Client;
 import com.project.restau_management.service.ClientService;
 import org.springframework.http.ResponseEntity;
@@ -18,8 +19,9 @@ public class ClientController {
     }
 
     @GetMapping
-    public List<Client> getAllClients() {
-        return clientService.getAllClients();
+    public PageResponse<Client> getAllClients(@RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer limit) {
+        return clientService.getClientsPage(after, limit);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,236 @@
+package com.project.restau_management.controller;
+
+import com.project.restau_management.service.FileStorageService;
+import com.project.restau_management.service.FileStorageService.ImageVariant;
+import com.project.restau_management.service.HotImageCache;
+import com.project.restau_management.storage.BlobStore;
+import com.project.restau_management.storage.BlobStore.BlobInfo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves uploaded images without copying them through the heap: Tomcat hands the file to
+ * sendfile, other containers get a FileChannel.transferTo, and small hot files such as
+ * thumbnails come from {@link HotImageCache}. Blobs that are not on the local file system are
+ * streamed from the store. Supports conditional requests and single byte ranges.
+ */
+@Controller
+public class ImageController {
+
+    // Request attributes of Tomcat's sendfile support (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this a plain write is cheaper than handing the file to the poller (Tomcat's own default)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl LEGACY = CacheControl.maxAge(1, TimeUnit.HOURS);
+
+    private final FileStorageService fileStorageService;
+    private final HotImageCache hotImageCache;
+    private final BlobStore blobStore;
+
+    public ImageController(FileStorageService fileStorageService,
+                           HotImageCache hotImageCache,
+                           BlobStore blobStore) {
+        this.fileStorageService = fileStorageService;
+        this.hotImageCache = hotImageCache;
+        this.blobStore = blobStore;
+    }
+
+    // Content-addressed uploads are cached forever with the hash as a strong ETag; files uploaded
+    // before the media store keep a one hour cache. ?size=thumb|medium picks a resized variant.
+    @GetMapping({"/" + FileStorageService.MEDIA_DIRECTORY + "/**", "/products/**", "/product-families/**"})
+    public void serveImage(@RequestParam(value = "size", required = false) String size,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        String relativePath = UriUtils.decode(
+                request.getRequestURI().substring(request.getContextPath().length()), StandardCharsets.UTF_8);
+        BlobInfo blob = isSafe(relativePath) ? blobStore.stat(FileStorageService.keyOf(relativePath)) : null;
+        if (blob == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String hash = FileStorageService.mediaHash(relativePath);
+        ImageVariant variant = ImageVariant.fromParameter(size);
+        if (variant != null) {
+            String variantPath = fileStorageService.findOrCreateVariant(relativePath, variant);
+            if (variantPath != null) {
+                relativePath = variantPath;
+                blob = blobStore.stat(FileStorageService.keyOf(variantPath));
+            } else if (hash != null) {
+                // Immutable URLs must never fall back to different bytes
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (blob == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+        }
+
+        String key = FileStorageService.keyOf(relativePath);
+        long length = blob.size();
+        long lastModified = blob.lastModified();
+        // Stored blobs and their variants are named by content, so the name is a strong validator
+        String etag = hash != null
+                ? "\"" + baseName(key) + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (hash != null ? IMMUTABLE : LEGACY).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        // Answers 304 on a matching If-None-Match / If-Modified-Since and sets ETag and Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length; // exclusive
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                // No error page: it would be rendered with the image content type already set
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setContentLength(0);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        long count = end - start;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        Path file = blobStore.localPath(key);
+        if (hotImageCache.accepts(length)) {
+            byte[] bytes = hotImageCache.get(key, lastModified);
+            response.getOutputStream().write(bytes, (int) start, (int) count);
+        } else if (file == null) {
+            try (InputStream in = blobStore.open(key, start, count)) {
+                in.transferTo(response.getOutputStream());
+            }
+        } else if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file itself once the request returns; nothing goes through the response
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+        } else {
+            transfer(file, start, count, response.getOutputStream());
+        }
+    }
+
+    // Request paths are only ever blob keys below the mapped directories
+    private static boolean isSafe(String relativePath) {
+        return !relativePath.contains("..") && relativePath.indexOf('\\') < 0 && relativePath.indexOf('\0') < 0;
+    }
+
+    private static void transfer(Path file, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    break; // File shrank under us
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    // A Range is only honored if the client's copy is still current, otherwise the whole file is sent
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String baseName(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * Parse a Range header against a file length
+     * @return {start, end exclusive} for a single satisfiable range, an empty array if the header
+     *         should be ignored (multiple ranges or not a byte range), or null if it cannot be satisfied
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            if (start >= length || end <= start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -3,14 +3,26 @@ package com.project.restau_management.controller;
 import com.project.restau_management.dto.OrderItemDTO;
 import com.project.restau_management.dto.OrderRequestDTO;
 import com.project.restau_management.dto.OrderResponseDTO;
+import com.project.restau_management.dto.OrderSummaryDTO;
+import com.project.restau_management.dto.PageResponse;
 import com.project.restau_management.entity.*;
 import com.project.restau_management.service.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,125 +31,65 @@ import java.util.Optional;
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderController.class);
+
     private final OrderService orderService;
     private final OrderItemService orderItemService;
     private final UserService userService;
     private final ClientService clientService;
     private final TableService tableService;
     private final ProductService productService;
-
+    private final OrderPlacementService orderPlacementService;
+    private final KitchenFeedService kitchenFeedService;
+    private final ExportService exportService;
+    private final IdempotencyService idempotencyService;
 
     public OrderController(OrderService orderService, OrderItemService orderItemService,
                            UserService userService,
                            ClientService clientService,
-                           TableService tableService, ProductService productService) {
+                           TableService tableService, ProductService productService,
+                           OrderPlacementService orderPlacementService,
+                           KitchenFeedService kitchenFeedService,
+                           ExportService exportService,
+                           IdempotencyService idempotencyService) {
         this.orderService = orderService;
         this.orderItemService = orderItemService;
         this.userService = userService;
         this.clientService = clientService;
         this.tableService = tableService;
         this.productService = productService;
+        this.orderPlacementService = orderPlacementService;
+        this.kitchenFeedService = kitchenFeedService;
+        this.exportService = exportService;
+        this.idempotencyService = idempotencyService;
     }
 
-    @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody OrderRequestDTO orderDTO) {
-        try {
-            // ✅ Step 1: Fetch user
-            User user = userService.getUserById(Math.toIntExact(orderDTO.getUserId()))
-                    .orElseThrow(() -> new RuntimeException("User not found with id: " + orderDTO.getUserId()));
-
-            // ✅ Step 2: Create basic Order entity
-            Order order = new Order();
-            order.setUser(user);
-            order.setStatus(orderDTO.getStatus() != null ? orderDTO.getStatus() : "ON GOING");
-            order.setCreatedAt(LocalDateTime.now());
-            order.setTotalAmount(BigDecimal.valueOf(orderDTO.getTotalAmount() != null ? orderDTO.getTotalAmount().floatValue() : 0.0f));
-
-            if (orderDTO.getDescription() != null) {
-                order.setDescription(orderDTO.getDescription());
-            }
-
-            // ✅ Step 3: Optional client and table
-            if (orderDTO.getClientId() != null) {
-                Client client = clientService.getClientById(Math.toIntExact(orderDTO.getClientId()))
-                        .orElseThrow(() -> new RuntimeException("Client not found with id: " + orderDTO.getClientId()));
-                order.setClient(client);
-            }
-
-            if (orderDTO.getTableId() != null) {
-                RestaurantTable table = tableService.getTableById(Math.toIntExact(orderDTO.getTableId()))
-                        .orElseThrow(() -> new RuntimeException("Table not found with id: " + orderDTO.getTableId()));
-
-                if (!table.isAvailable()) {
-                    throw new RuntimeException("Table " + table.getTableNumber() + " is already occupied");
-                }
-
-                order.setTable(table);
-                table.setAvailable(false);
-                tableService.saveTable(table);
-            }
-
-            // ✅ Step 4: Save the order first
-            Order savedOrder = orderService.saveOrder(order);
-
-            BigDecimal calculatedTotal = BigDecimal.ZERO;
-
-            // ✅ Step 5: Process order items (fixed the main issue here)
-            if (orderDTO.getItems() != null && !orderDTO.getItems().isEmpty()) {
-                for (OrderItemDTO itemDTO : orderDTO.getItems()) { // Changed from OrderItem to OrderItemDTO
-                    OrderItem item = new OrderItem();
-                    item.setOrder(savedOrder);
-                    item.setQuantity(itemDTO.getQuantity());
-
-                    // ✅ Use getUnitPrice() or getPrice() depending on your DTO structure
-                    BigDecimal unitPrice = itemDTO.getUnitPrice() != null ? itemDTO.getUnitPrice() :
-                            (itemDTO.getPrice() != null ? itemDTO.getPrice() : BigDecimal.ZERO);
-
-                    // Check if unitPrice is greater than zero using compareTo()
-                    if (unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                        // If no valid price provided, we'll try to get it from the product
-                        unitPrice = BigDecimal.ZERO;
-                    }
-
-                    item.setUnitPrice(BigDecimal.valueOf(unitPrice.floatValue())); // Convert to float if OrderItem uses float
-
-                    // ✅ Calculate subtotal using BigDecimal multiplication
-                    BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(itemDTO.getQuantity()));
-                    item.setSubtotal(BigDecimal.valueOf(subtotal.floatValue())); // Convert to float if OrderItem uses float
-
-                    if (itemDTO.getDetails() != null) {
-                        item.setDetails(itemDTO.getDetails());
-                    }
-
-                    // ✅ Handle product association properly
-                    if (itemDTO.getProductId() != null && itemDTO.getProductId() > 0) {
-                        // Fetch the product by ID
-                        Product product = productService.getProductById(Math.toIntExact(itemDTO.getProductId()))
-                                .orElseThrow(() -> new RuntimeException("Product not found with id: " + itemDTO.getProductId()));
-                        item.setProduct(product);
-
-                        // If unit price wasn't provided or is zero, use product price
-                        if (itemDTO.getUnitPrice() == null && itemDTO.getPrice() == null ||
-                                unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
-                            BigDecimal productPrice = product.getPrice();
-                            item.setUnitPrice(BigDecimal.valueOf(productPrice.floatValue())); // Convert to float if needed
-                            BigDecimal calculatedSubtotal = productPrice.multiply(BigDecimal.valueOf(itemDTO.getQuantity()));
-                            item.setSubtotal(BigDecimal.valueOf(calculatedSubtotal.floatValue())); // Convert to float if needed
-                            subtotal = calculatedSubtotal; // Keep BigDecimal for total calculation
-                        }
-                    }
-
-                    calculatedTotal = calculatedTotal.add(item.getSubtotal());
-                    orderItemService.saveOrderItem(item);
-                }
-            }
+    @GetMapping
+    public PageResponse<OrderSummaryDTO> getAllOrders(@RequestParam(required = false) String after,
+                                                      @RequestParam(required = false) Integer limit) {
+        return orderService.getOrdersPage(after, limit);
+    }
 
-            // ✅ Step 6: Update totalAmount and save again
-            savedOrder.setTotalAmount(BigDecimal.valueOf(calculatedTotal.floatValue()));
-            orderService.saveOrder(savedOrder);
+    // A POS that lost the connection resends the same Idempotency-Key and gets the first response back
+    @PostMapping
+    public ResponseEntity<?> createOrder(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody OrderRequestDTO orderDTO) {
+        return idempotencyService.execute(idempotencyKey, orderDTO, () -> placeOrder(orderDTO));
+    }
 
+    private ResponseEntity<?> placeOrder(OrderRequestDTO orderDTO) {
+        try {
+            Order savedOrder = orderPlacementService.placeOrder(orderDTO);
             return ResponseEntity.status(201).body(OrderResponseDTO.fromEntity(savedOrder));
 
+        } catch (DataAccessException | TransactionException e) {
+            // The database failed, not the request: a 5xx releases the Idempotency-Key so the retry runs again
+            log.warn("Could not place order", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                    "error", "The order could not be saved, retry shortly",
+                    "timestamp", LocalDateTime.now()
+            ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "error", e.getMessage(),
@@ -147,63 +99,59 @@ public class OrderController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<OrderResponseDTO> updateOrder(
+    public ResponseEntity<?> updateOrder(
             @PathVariable int id,
             @RequestBody OrderRequestDTO orderDTO) {
-
-        Optional<Order> existingOrder = orderService.getOrderById(id);
-        if (existingOrder.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        Order orderToUpdate = existingOrder.get();
-
-        // Update order fields
-        if (orderDTO.getDescription() != null) orderToUpdate.setDescription(orderDTO.getDescription());
-        if (orderDTO.getStatus() != null) orderToUpdate.setStatus(orderDTO.getStatus());
-
-        // Delete existing items
-        List<OrderItem> oldItems = orderItemService.getOrderItemsByOrder(orderToUpdate);
-        oldItems.forEach(item -> orderItemService.deleteOrderItem(item.getOrderItemId()));
-
-        BigDecimal newTotal = BigDecimal.ZERO;
-
-        if (orderDTO.getItems() != null) {
-            for (OrderItemDTO itemDTO : orderDTO.getItems()) {
-                OrderItem newItem = new OrderItem();
-                newItem.setOrder(orderToUpdate);
-                newItem.setQuantity(itemDTO.getQuantity());
-                newItem.setUnitPrice(itemDTO.getUnitPrice());
-                newItem.setSubtotal(itemDTO.getUnitPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity())));
-                newItem.setDetails(itemDTO.getDetails());
-
-                Product product = productService.getProductById(Math.toIntExact(itemDTO.getProductId()))
-                        .orElseThrow(() -> new RuntimeException("Product not found: " + itemDTO.getProductId()));
-                newItem.setProduct(product);
-
-                newTotal = newTotal.add(newItem.getSubtotal());
-
-                orderItemService.saveOrderItem(newItem);
-            }
+        try {
+            Order updatedOrder = orderPlacementService.updateOrder(id, orderDTO);
+            return updatedOrder != null ?
+                    ResponseEntity.ok(OrderResponseDTO.fromEntity(updatedOrder)) :
+                    ResponseEntity.notFound().build();
+
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", "Order " + id + " was changed on another terminal, reload it and retry",
+                    "timestamp", LocalDateTime.now()
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", e.getMessage(),
+                    "timestamp", LocalDateTime.now()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage(),
+                    "timestamp", LocalDateTime.now()
+            ));
         }
-
-        orderToUpdate.setTotalAmount(newTotal);
-        Order updatedOrder = orderService.saveOrder(orderToUpdate);
-
-        return ResponseEntity.ok(OrderResponseDTO.fromEntity(updatedOrder));
     }
 
     @PutMapping("/{orderId}/quantities")
-    public ResponseEntity<Order> updateQuantities(
+    public ResponseEntity<?> updateQuantities(
             @PathVariable Long orderId,
             @RequestBody List<OrderItemDTO> updatedItems) {
         try {
             Order updatedOrder = orderService.updateOrderQuantities(orderId, updatedItems);
-            return ResponseEntity.ok(updatedOrder);
+            if (updatedOrder == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.of(orderService.getOrderSummary(updatedOrder.getOrderId()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", "Order " + orderId + " was changed on another terminal, reload it and retry",
+                    "timestamp", LocalDateTime.now()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage(),
+                    "timestamp", LocalDateTime.now()
+            ));
         } catch (Exception e) {
-            e.printStackTrace(); // Log full stack trace
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            log.error("Could not update the quantities of order {}", orderId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "error", "Failed to update the quantities of order " + orderId,
+                    "timestamp", LocalDateTime.now()
+            ));
         }
     }
 
@@ -215,35 +163,49 @@ public class OrderController {
         return ResponseEntity.noContent().build();
     }
 
+    // Kitchen screens: initial queue snapshot, then one event per order change
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(@RequestParam(defaultValue = "ON GOING") OrderStatus status) {
+        return kitchenFeedService.subscribe(status);
+    }
+
     @GetMapping("/status/{status}")
-    public List<Order> getOrdersByStatus(@PathVariable String status) {
-        return orderService.getOrdersByStatus(status);
+    public List<OrderSummaryDTO> getOrdersByStatus(@PathVariable OrderStatus status) {
+        return orderService.getOrderSummariesByStatus(status);
     }
 
     @GetMapping("/user/{userId}")
-    public List<Order> getOrdersByUserId(@PathVariable int userId) {
-        return orderService.getOrdersByUserId(userId);
+    public List<OrderSummaryDTO> getOrdersByUserId(@PathVariable int userId) {
+        return orderService.getOrderSummariesByUserId(userId);
     }
 
     @PostMapping("/{id}/complete")
-    public ResponseEntity<Order> completeOrder(@PathVariable int id) {
-        Order completedOrder = orderService.completeOrder(id);
-        return completedOrder != null ?
-                ResponseEntity.ok(completedOrder) :
-                ResponseEntity.notFound().build();
+    public ResponseEntity<?> completeOrder(@PathVariable int id) {
+        try {
+            Order completedOrder = orderService.completeOrder(id);
+            return completedOrder != null ?
+                    ResponseEntity.ok(completedOrder) :
+                    ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<Order> cancelOrder(@PathVariable int id) {
-        Order cancelledOrder = orderService.cancelOrder(id);
-        return cancelledOrder != null ?
-                ResponseEntity.ok(cancelledOrder) :
-                ResponseEntity.notFound().build();
+    public ResponseEntity<?> cancelOrder(@PathVariable int id) {
+        try {
+            Order cancelledOrder = orderService.cancelOrder(id);
+            return cancelledOrder != null ?
+                    ResponseEntity.ok(cancelledOrder) :
+                    ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/today")
-    public List<Order> getTodaysOrders() {
-        return orderService.getTodaysOrders();
+    public List<OrderSummaryDTO> getTodaysOrders() {
+        return orderService.getTodaysOrderSummaries();
     }
 
     @PutMapping("/{orderId}/assign-client")
@@ -251,27 +213,22 @@ public class OrderController {
         try {
             int clientId = payload.get("clientId");
 
-            Optional<Order> orderOpt = orderService.getOrderById(orderId);
-            if (orderOpt.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-
             Optional<Client> clientOpt = clientService.getClientById(clientId);
             if (clientOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(Map.of("error", "Client not found with id: " + clientId));
             }
 
-            Order order = orderOpt.get();
-            Client client = clientOpt.get();
-
-            order.setClient(client);
-            order.setStatus("COMPLETED"); // ✅ Mark as paid via subscription
-
-            Order updatedOrder = orderService.saveOrder(order);
+            // Paid through the subscription: completing it also frees the table
+            Order updatedOrder = orderService.completeForClient(orderId, clientOpt.get());
+            if (updatedOrder == null) {
+                return ResponseEntity.notFound().build();
+            }
 
             return ResponseEntity.ok(OrderResponseDTO.fromEntity(updatedOrder));
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to assign client to order", "details", e.getMessage()));
@@ -279,14 +236,47 @@ public class OrderController {
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<Order>> getOrdersByClientAndMonth(
+    public ResponseEntity<?> getOrdersByClientAndMonth(
             @PathVariable int clientId,
             @RequestParam(required = false) String from, // ISO date e.g. 2025-08-01
-            @RequestParam(required = false) String to    // ISO date e.g. 2025-08-31
+            @RequestParam(required = false) String to,   // ISO date e.g. 2025-08-31
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit
     ) {
         // Optional range (month) filter
-        List<Order> orders = orderService.getOrdersByClientAndDateRange(clientId, from, to);
-        return ResponseEntity.ok(orders);
+        try {
+            return ResponseEntity.ok(orderService.getOrdersByClientAndDateRange(clientId, from, to, after, limit));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from and to must be ISO dates, e.g. 2025-08-01"));
+        }
+    }
+
+    // Accounting export of orders with their lines, optionally for one client
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam String from, // ISO date e.g. 2025-01-01
+            @RequestParam String to,   // ISO date e.g. 2025-12-31
+            @RequestParam(required = false) Integer clientId,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat;
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+            start = LocalDate.parse(from).atStartOfDay();
+            end = LocalDate.parse(to).atTime(23, 59, 59);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from and to must be ISO dates, e.g. 2025-08-01"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> exportService.exportOrders(clientId, start, end, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -1,5 +1,6 @@
 package com.project.restau_management.controller;
 
+import com.project.restau_management.dto.PageResponse;
 import com.project.restau_management.entity.OrderItem;
 import com.project.restau_management.service.OrderItemService;
 import org.springframework.http.ResponseEntity;
@@ -18,8 +19,9 @@ public class OrderItemController {
     }
 
     @GetMapping
-    public List<OrderItem> getAllOrderItems() {
-        return orderItemService.getAllOrderItems();
+    public PageResponse<OrderItem> getAllOrderItems(@RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer limit) {
+        return orderItemService.getOrderItemsPage(after, limit);
     }
 
     @GetMapping("/{id}")
@@ -1,25 +1,37 @@
 package com.project.restau_management.controller;
 
+import com.project.restau_management.dto.PageResponse;
+import com.project.restau_management.entity.Money;
 import com.project.restau_management.entity.Payment;
+import com.project.restau_management.entity.PaymentStatus;
+import com.project.restau_management.service.ExportService;
 import com.project.restau_management.service.PaymentService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ExportService exportService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, ExportService exportService) {
         this.paymentService = paymentService;
+        this.exportService = exportService;
     }
 
     @GetMapping
-    public List<Payment> getAllPayments() {
-        return paymentService.getAllPayments();
+    public PageResponse<Payment> getAllPayments(@RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
+        return paymentService.getPaymentsPage(after, limit);
     }
 
     @GetMapping("/{id}")
@@ -35,14 +47,18 @@ public class PaymentController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Payment> updatePayment(
+    public ResponseEntity<?> updatePayment(
             @PathVariable int id,
             @RequestBody Payment payment) {
         if (!paymentService.getPaymentById(id).isPresent()) {
             return ResponseEntity.notFound().build();
         }
         payment.setPaymentId(id);
-        return ResponseEntity.ok(paymentService.savePayment(payment));
+        try {
+            return ResponseEntity.ok(paymentService.savePayment(payment));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -59,21 +75,52 @@ public class PaymentController {
     }
 
     @GetMapping("/status/{status}")
-    public List<Payment> getPaymentsByStatus(@PathVariable String status) {
-        return paymentService.getPaymentsByStatus(status);
+    public PageResponse<Payment> getPaymentsByStatus(@PathVariable PaymentStatus status,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) Integer limit) {
+        return paymentService.getPaymentsByStatus(status, after, limit);
     }
 
     @GetMapping("/today-revenue")
-    public Double getTodaysRevenue() {
+    public Money getTodaysRevenue() {
         return paymentService.getTodaysRevenue();
     }
 
     @GetMapping("/date-range")
-    public List<Payment> getPaymentsByDateRange(
+    public PageResponse<Payment> getPaymentsByDateRange(
             @RequestParam String start,
-            @RequestParam String end) {
+            @RequestParam String end,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         LocalDateTime startDate = LocalDateTime.parse(start);
         LocalDateTime endDate = LocalDateTime.parse(end);
-        return paymentService.getPaymentsByDateRange(startDate, endDate);
+        return paymentService.getPaymentsByDateRange(startDate, endDate, after, limit);
+    }
+
+    // Accounting export: rows go from a database cursor straight to the response
+    @GetMapping("/export")
+    public ResponseEntity<?> exportPayments(
+            @RequestParam String start,
+            @RequestParam String end,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat;
+        LocalDateTime startDate;
+        LocalDateTime endDate;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+            startDate = LocalDateTime.parse(start);
+            endDate = LocalDateTime.parse(end);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "start and end must be ISO date-times, e.g. 2025-08-01T00:00:00"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> exportService.exportPayments(startDate, endDate, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"payments." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 }
@@ -4,50 +4,55 @@ import com.project.restau_management.entity.Category;
 import com.project.restau_management.entity.Product;
 import com.project.restau_management.entity.ProductFamily;
 import com.project.restau_management.service.CategoryService;
+import com.project.restau_management.service.FileStorageService;
+import com.project.restau_management.service.MenuCatalogService;
+import com.project.restau_management.service.MenuSnapshot;
 import com.project.restau_management.service.ProductFamilyService;
 import com.project.restau_management.service.ProductService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.beans.factory.annotation.Value;
 
-import java.io.IOException;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final long UPLOAD_TIMEOUT_MS = 60_000;
+
     private final ProductService productService;
     private final CategoryService categoryService;
     private final ProductFamilyService productFamilyService;
-
-    @Value("${file.upload.dir:uploads}")
-    private String uploadDir;
+    private final MenuCatalogService menuCatalogService;
+    private final FileStorageService fileStorageService;
 
     public ProductController(ProductService productService,
                              CategoryService categoryService,
-                             ProductFamilyService productFamilyService) {
+                             ProductFamilyService productFamilyService,
+                             MenuCatalogService menuCatalogService,
+                             FileStorageService fileStorageService) {
         this.productService = productService;
         this.categoryService = categoryService;
         this.productFamilyService = productFamilyService;
+        this.menuCatalogService = menuCatalogService;
+        this.fileStorageService = fileStorageService;
     }
 
+    // Reads are served from the in-memory menu; unchanged menus answer 304 on If-None-Match
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<Product>> getAllProducts() {
+        MenuSnapshot menu = menuCatalogService.snapshot();
+        return menuResponse(menu, menu.getProducts());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Integer id) {
-        return productService.getProductById(id)
+        return menuCatalogService.snapshot().getProduct(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -60,7 +65,7 @@ public class ProductController {
 
     // New multipart endpoint for file uploads
     @PostMapping(consumes = {"multipart/form-data"})
-    public ResponseEntity<?> createProduct(
+    public WebAsyncTask<ResponseEntity<?>> createProduct(
             @RequestParam("name") String name,
             @RequestParam("description") String description,
             @RequestParam("price") String priceStr,
@@ -68,86 +73,88 @@ public class ProductController {
             @RequestParam("productFamilyId") String productFamilyId,
             @RequestParam(value = "notes", required = false) String notes,
             @RequestParam(value = "image", required = false) MultipartFile imageFile) {
-
-        try {
-            // Parse category ID as integer
-            int categoryIdInt;
-            try {
-                categoryIdInt = Integer.parseInt(categoryId);
-            } catch (NumberFormatException e) {
-                return ResponseEntity.badRequest().body("Invalid category ID format");
-            }
-
-            // Validate category
-            Optional<Category> categoryOpt = categoryService.getCategoryById(categoryIdInt);
-            if (!categoryOpt.isPresent()) {
-                return ResponseEntity.badRequest().body("Invalid category ID");
-            }
-
-            // Validate product family
-            Optional<ProductFamily> productFamilyOpt = productFamilyService.getProductFamilyById(productFamilyId);
-            if (!productFamilyOpt.isPresent()) {
-                return ResponseEntity.badRequest().body("Invalid product family ID");
-            }
-
-            // Parse price
-            BigDecimal price;
+        // Hashing the upload and writing it to the blob store happen off the servlet thread
+        return new WebAsyncTask<>(UPLOAD_TIMEOUT_MS, fileStorageService.getStorageExecutor(), () -> {
             try {
-                price = new BigDecimal(priceStr);
-            } catch (NumberFormatException e) {
-                return ResponseEntity.badRequest().body("Invalid price format");
-            }
+                // Parse category ID as integer
+                int categoryIdInt;
+                try {
+                    categoryIdInt = Integer.parseInt(categoryId);
+                } catch (NumberFormatException e) {
+                    return ResponseEntity.badRequest().body("Invalid category ID format");
+                }
 
-            // Create new Product
-            Product product = new Product();
-            // productId will be auto-generated, so we don't set it
-            product.setName(name);
-            product.setDescription(description);
-            product.setPrice(price);
-            product.setNotes(notes);
-            product.setCategory(categoryOpt.get());
-            product.setProductFamily(productFamilyOpt.get());
-
-            // Handle image upload if provided
-            if (imageFile != null && !imageFile.isEmpty()) {
-                // Validate file type
-                String contentType = imageFile.getContentType();
-                if (contentType == null || !contentType.startsWith("image/")) {
-                    return ResponseEntity.badRequest().body("Please upload a valid image file");
+                // Validate category
+                Optional<Category> categoryOpt = categoryService.getCategoryById(categoryIdInt);
+                if (!categoryOpt.isPresent()) {
+                    return ResponseEntity.badRequest().body("Invalid category ID");
                 }
 
-                // Validate file size (5MB limit)
-                long maxSize = 5 * 1024 * 1024; // 5MB
-                if (imageFile.getSize() > maxSize) {
-                    return ResponseEntity.badRequest().body("File size must be less than 5MB");
+                // Validate product family
+                Optional<ProductFamily> productFamilyOpt = productFamilyService.getProductFamilyById(productFamilyId);
+                if (!productFamilyOpt.isPresent()) {
+                    return ResponseEntity.badRequest().body("Invalid product family ID");
                 }
 
+                // Parse price
+                BigDecimal price;
                 try {
-                    // Store the file and get the URL
-                    String imageUrl = storeFile(imageFile, "products");
+                    price = new BigDecimal(priceStr);
+                } catch (NumberFormatException e) {
+                    return ResponseEntity.badRequest().body("Invalid price format");
+                }
 
-                    // Set image-related fields
-                    product.setImageUrl(imageUrl);
-                    product.setOriginalFilename(imageFile.getOriginalFilename());
-                    product.setFileSize(imageFile.getSize());
-                    product.setContentType(imageFile.getContentType());
+                // Create new Product
+                Product product = new Product();
+                // productId will be auto-generated, so we don't set it
+                product.setName(name);
+                product.setDescription(description);
+                product.setPrice(price);
+                product.setNotes(notes);
+                product.setCategory(categoryOpt.get());
+                product.setProductFamily(productFamilyOpt.get());
+
+                // Handle image upload if provided
+                if (imageFile != null && !imageFile.isEmpty()) {
+                    // Validate file type
+                    String contentType = imageFile.getContentType();
+                    if (contentType == null || !contentType.startsWith("image/")) {
+                        return ResponseEntity.badRequest().body("Please upload a valid image file");
+                    }
 
-                } catch (Exception e) {
-                    return ResponseEntity.status(500).body("Failed to upload image: " + e.getMessage());
+                    // Validate file size (5MB limit)
+                    long maxSize = 5 * 1024 * 1024; // 5MB
+                    if (imageFile.getSize() > maxSize) {
+                        return ResponseEntity.badRequest().body("File size must be less than 5MB");
+                    }
+
+                    try {
+                        // Store the file and get the URL
+                        String imageUrl = fileStorageService.storeFile(imageFile);
+
+                        // Set image-related fields
+                        product.setImageUrl(imageUrl);
+                        product.setOriginalFilename(imageFile.getOriginalFilename());
+                        product.setFileSize(imageFile.getSize());
+                        product.setContentType(imageFile.getContentType());
+
+                    } catch (Exception e) {
+                        return ResponseEntity.status(500).body("Failed to upload image: " + e.getMessage());
+                    }
                 }
-            }
 
-            Product saved = productService.saveProduct(product);
-            return ResponseEntity.ok(saved);
+                Product saved = productService.saveProduct(product);
+                return ResponseEntity.ok(saved);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body("Error creating product: " + e.getMessage());
-        }
+            } catch (Exception e) {
+                e.printStackTrace();
+                return ResponseEntity.status(500).body("Error creating product: " + e.getMessage());
+            }
+        });
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateProduct(
+    public WebAsyncTask<ResponseEntity<?>> updateProduct(
             @PathVariable int id,
             @RequestParam("name") String name,
             @RequestParam("description") String description,
@@ -156,82 +163,86 @@ public class ProductController {
             @RequestParam("productFamilyId") String productFamilyId,
             @RequestParam(value = "notes", required = false) String notes,
             @RequestParam(value = "image", required = false) MultipartFile imageFile) {
+        // Hashing the upload and writing it to the blob store happen off the servlet thread
+        return new WebAsyncTask<>(UPLOAD_TIMEOUT_MS, fileStorageService.getStorageExecutor(), () -> {
+            try {
+                Optional<Product> existingProductOpt = productService.getProductById(id);
+                if (!existingProductOpt.isPresent()) {
+                    return ResponseEntity.notFound().build();
+                }
 
-        try {
-            Optional<Product> existingProductOpt = productService.getProductById(id);
-            if (!existingProductOpt.isPresent()) {
-                return ResponseEntity.notFound().build();
-            }
+                // Parse category ID as integer
+                int categoryIdInt;
+                try {
+                    categoryIdInt = Integer.parseInt(categoryId);
+                } catch (NumberFormatException e) {
+                    return ResponseEntity.badRequest().body("Invalid category ID format");
+                }
 
-            // Parse category ID as integer
-            int categoryIdInt;
-            try {
-                categoryIdInt = Integer.parseInt(categoryId);
-            } catch (NumberFormatException e) {
-                return ResponseEntity.badRequest().body("Invalid category ID format");
-            }
+                Optional<Category> categoryOpt = categoryService.getCategoryById(categoryIdInt);
+                if (!categoryOpt.isPresent()) {
+                    return ResponseEntity.badRequest().body("Invalid category ID");
+                }
 
-            Optional<Category> categoryOpt = categoryService.getCategoryById(categoryIdInt);
-            if (!categoryOpt.isPresent()) {
-                return ResponseEntity.badRequest().body("Invalid category ID");
-            }
+                Optional<ProductFamily> productFamilyOpt = productFamilyService.getProductFamilyById(productFamilyId);
+                if (!productFamilyOpt.isPresent()) {
+                    return ResponseEntity.badRequest().body("Invalid product family ID");
+                }
 
-            Optional<ProductFamily> productFamilyOpt = productFamilyService.getProductFamilyById(productFamilyId);
-            if (!productFamilyOpt.isPresent()) {
-                return ResponseEntity.badRequest().body("Invalid product family ID");
-            }
+                BigDecimal price;
+                try {
+                    price = new BigDecimal(priceStr);
+                } catch (NumberFormatException e) {
+                    return ResponseEntity.badRequest().body("Invalid price format");
+                }
 
-            BigDecimal price;
-            try {
-                price = new BigDecimal(priceStr);
-            } catch (NumberFormatException e) {
-                return ResponseEntity.badRequest().body("Invalid price format");
-            }
+                Product product = existingProductOpt.get();
+                product.setName(name);
+                product.setDescription(description);
+                product.setPrice(price);
+                product.setNotes(notes);
+                product.setCategory(categoryOpt.get());
+                product.setProductFamily(productFamilyOpt.get());
+
+                // Handle image update
+                if (imageFile != null && !imageFile.isEmpty()) {
+                    // Validate and store new image
+                    String contentType = imageFile.getContentType();
+                    if (contentType == null || !contentType.startsWith("image/")) {
+                        return ResponseEntity.badRequest().body("Please upload a valid image file");
+                    }
 
-            Product product = existingProductOpt.get();
-            product.setName(name);
-            product.setDescription(description);
-            product.setPrice(price);
-            product.setNotes(notes);
-            product.setCategory(categoryOpt.get());
-            product.setProductFamily(productFamilyOpt.get());
-
-            // Handle image update
-            if (imageFile != null && !imageFile.isEmpty()) {
-                // Delete old image if exists
-                if (product.getImageUrl() != null) {
-                    try {
-                        deleteFile(product.getImageUrl());
-                    } catch (Exception e) {
-                        System.err.println("Failed to delete old image: " + e.getMessage());
+                    long maxSize = 5 * 1024 * 1024; // 5MB
+                    if (imageFile.getSize() > maxSize) {
+                        return ResponseEntity.badRequest().body("File size must be less than 5MB");
                     }
-                }
 
-                // Validate and store new image
-                String contentType = imageFile.getContentType();
-                if (contentType == null || !contentType.startsWith("image/")) {
-                    return ResponseEntity.badRequest().body("Please upload a valid image file");
-                }
+                    String previousImageUrl = product.getImageUrl();
+                    String imageUrl = fileStorageService.storeFile(imageFile);
+                    product.setImageUrl(imageUrl);
+                    product.setOriginalFilename(imageFile.getOriginalFilename());
+                    product.setFileSize(imageFile.getSize());
+                    product.setContentType(imageFile.getContentType());
 
-                long maxSize = 5 * 1024 * 1024; // 5MB
-                if (imageFile.getSize() > maxSize) {
-                    return ResponseEntity.badRequest().body("File size must be less than 5MB");
+                    // Release the old image only once the new one is stored: re-uploading the same
+                    // photo must not delete the blob both point at
+                    if (previousImageUrl != null) {
+                        try {
+                            fileStorageService.deleteFile(previousImageUrl);
+                        } catch (Exception e) {
+                            System.err.println("Failed to delete old image: " + e.getMessage());
+                        }
+                    }
                 }
 
-                String imageUrl = storeFile(imageFile, "products");
-                product.setImageUrl(imageUrl);
-                product.setOriginalFilename(imageFile.getOriginalFilename());
-                product.setFileSize(imageFile.getSize());
-                product.setContentType(imageFile.getContentType());
-            }
-
-            Product updated = productService.saveProduct(product);
-            return ResponseEntity.ok(updated);
+                Product updated = productService.saveProduct(product);
+                return ResponseEntity.ok(updated);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body("Error updating product: " + e.getMessage());
-        }
+            } catch (Exception e) {
+                e.printStackTrace();
+                return ResponseEntity.status(500).body("Error updating product: " + e.getMessage());
+            }
+        });
     }
 
     @DeleteMapping("/{id}")
@@ -241,7 +252,7 @@ public class ProductController {
             if (productOpt.isPresent() && productOpt.get().getImageUrl() != null) {
                 // Delete associated image file
                 try {
-                    deleteFile(productOpt.get().getImageUrl());
+                    fileStorageService.deleteFile(productOpt.get().getImageUrl());
                 } catch (Exception e) {
                     System.err.println("Failed to delete image file: " + e.getMessage());
                 }
@@ -256,60 +267,43 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String name) {
-        return productService.searchByName(name);
+    public ResponseEntity<?> searchProducts(@RequestParam String name,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().body("Page must be 0 or more");
+        }
+        if (size < 1) {
+            return ResponseEntity.badRequest().body("Size must be at least 1");
+        }
+        return ResponseEntity.ok(menuCatalogService.snapshot().searchProducts(name, page, Math.min(size, 100)));
     }
 
     @GetMapping("/category/{categoryId}")
-    public List<Product> getProductsByCategory(@PathVariable int categoryId) {
-        return productService.getProductsByCategoryId(categoryId);
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable int categoryId) {
+        MenuSnapshot menu = menuCatalogService.snapshot();
+        return menuResponse(menu, menu.getProductsByCategory(categoryId));
     }
 
     @GetMapping("/family/{familyId}")
-    public List<Product> getProductsByFamily(@PathVariable String familyId) {
-        return productService.getProductsByFamilyId(familyId);
+    public ResponseEntity<List<Product>> getProductsByFamily(@PathVariable String familyId) {
+        MenuSnapshot menu = menuCatalogService.snapshot();
+        return menuResponse(menu, menu.getProductsByFamily(familyId));
     }
 
     @GetMapping("/price-range")
     public List<Product> getProductsByPriceRange(
             @RequestParam BigDecimal min,
             @RequestParam BigDecimal max) {
-        return productService.getProductsByPriceRange(min, max);
+        return menuCatalogService.snapshot().getProducts().stream()
+                .filter(p -> p.getPrice().compareTo(min) >= 0 && p.getPrice().compareTo(max) <= 0)
+                .toList();
     }
 
-    // Private helper methods for file handling
-    private String storeFile(MultipartFile file, String subDirectory) throws IOException {
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir, subDirectory);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-        // Store the file
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        // Return the relative path that can be used to access the file
-        return "/" + subDirectory + "/" + uniqueFilename;
-    }
-
-    private void deleteFile(String filePath) throws IOException {
-        if (filePath != null && !filePath.isEmpty()) {
-            // Remove leading slash if present
-            String cleanPath = filePath.startsWith("/") ? filePath.substring(1) : filePath;
-            Path fileToDelete = Paths.get(uploadDir, cleanPath);
-
-            if (Files.exists(fileToDelete)) {
-                Files.delete(fileToDelete);
-            }
-        }
+    private <T> ResponseEntity<T> menuResponse(MenuSnapshot menu, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(menu.getETag())
+                .body(body);
     }
 }
\ No newline at end of file
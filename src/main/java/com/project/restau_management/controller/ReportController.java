@@ -0,0 +1,63 @@
+package com.project.restau_management.controller;
+
+import com.project.restau_management.dto.RevenueBucketDTO;
+import com.project.restau_management.entity.PaymentStatus;
+import com.project.restau_management.entity.ProductSalesRollup;
+import com.project.restau_management.service.RollupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final RollupService rollupService;
+
+    public ReportController(RollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/revenue/daily")
+    public List<RevenueBucketDTO> getDailyRevenue(
+            @RequestParam String from,   // ISO date e.g. 2025-08-01
+            @RequestParam String to,     // ISO date e.g. 2025-08-31
+            @RequestParam(defaultValue = "COMPLETED") PaymentStatus status) {
+        return rollupService.getRevenueByDay(status, LocalDate.parse(from), LocalDate.parse(to));
+    }
+
+    @GetMapping("/revenue/hourly")
+    public List<RevenueBucketDTO> getHourlyRevenue(
+            @RequestParam String date,
+            @RequestParam(defaultValue = "COMPLETED") PaymentStatus status) {
+        return rollupService.getRevenueByHour(status, LocalDate.parse(date));
+    }
+
+    @GetMapping("/revenue/by-method")
+    public List<RevenueBucketDTO> getRevenueByPaymentMethod(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "COMPLETED") PaymentStatus status) {
+        return rollupService.getRevenueByPaymentMethod(status, LocalDate.parse(from), LocalDate.parse(to));
+    }
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductSalesRollup> getProductSales(@PathVariable int productId) {
+        return rollupService.getProductSales(productId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/products/top")
+    public List<ProductSalesRollup> getTopProducts(@RequestParam(defaultValue = "10") int limit) {
+        return rollupService.getTopProducts(Math.min(limit, 100));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups() {
+        rollupService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
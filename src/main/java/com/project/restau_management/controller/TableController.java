@@ -1,7 +1,9 @@
 package com.project.restau_management.controller;
 
+import com.project.restau_management.entity.OrderStatus;
 import com.project.restau_management.entity.RestaurantTable;
 import com.project.restau_management.repository.OrderRepository;
+import com.project.restau_management.service.TableOccupancyService;
 import com.project.restau_management.service.TableService;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -18,12 +20,14 @@ public class TableController {
 
     private final TableService tableService;
     private final OrderRepository orderRepository;
+    private final TableOccupancyService tableOccupancyService;
 
 
-    public TableController(TableService tableService, OrderRepository orderRepository) {
+    public TableController(TableService tableService, OrderRepository orderRepository,
+                           TableOccupancyService tableOccupancyService) {
         this.tableService = tableService;
         this.orderRepository = orderRepository;
-
+        this.tableOccupancyService = tableOccupancyService;
     }
 
     @GetMapping
@@ -51,7 +55,7 @@ public class TableController {
         }
 
         // Check if table is linked to an ongoing order
-        boolean inUse = !orderRepository.findByTableIdAndStatus(id, "ON GOING").isEmpty();
+        boolean inUse = !orderRepository.findByTableIdAndStatus(id, OrderStatus.ON_GOING).isEmpty();
         if (inUse) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(Map.of("error", "Cannot edit table: it is currently linked to an active order."));
@@ -93,6 +97,11 @@ public class TableController {
         return tableService.getTablesWithCapacity(capacity);
     }
 
+    @GetMapping("/occupancy-stats")
+    public Map<String, Long> getOccupancyStats() {
+        return tableOccupancyService.getStats();
+    }
+
     @PatchMapping("/{id}/availability")
     public ResponseEntity<Void> setTableAvailability(@PathVariable int id, @RequestParam boolean available) {
         tableService.setTableAvailability(id, available);
@@ -0,0 +1,51 @@
+package com.project.restau_management.dto;
+
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderItem;
+import com.project.restau_management.entity.OrderStatus;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class KitchenOrderDTO {
+    private int orderId;
+    private OrderStatus status;
+    private String description;
+    private Integer tableNumber;
+    private String createdAt;
+    private List<Line> items;
+
+    @Data
+    public static class Line {
+        private int orderItemId;
+        private Integer productId;
+        private String productName;
+        private int quantity;
+        private String details;
+    }
+
+    // Static conversion method
+    public static KitchenOrderDTO fromEntity(Order order) {
+        KitchenOrderDTO dto = new KitchenOrderDTO();
+        dto.setOrderId(order.getOrderId());
+        dto.setStatus(order.getStatus());
+        dto.setDescription(order.getDescription());
+        dto.setTableNumber(order.getTable() != null ? order.getTable().getTableNumber() : null);
+        dto.setCreatedAt(order.getCreatedAt() != null ? order.getCreatedAt().toString() : null);
+        dto.setItems(order.getItems().stream().map(KitchenOrderDTO::line).toList());
+        return dto;
+    }
+
+    private static Line line(OrderItem item) {
+        Line line = new Line();
+        line.setOrderItemId(item.getOrderItemId());
+        line.setQuantity(item.getQuantity());
+        line.setDetails(item.getDetails());
+        if (item.getProduct() != null) {
+            line.setProductId(item.getProduct().getProductId());
+            line.setProductName(item.getProduct().getName());
+        }
+        return line;
+    }
+}
@@ -1,8 +1,9 @@
 package com.project.restau_management.dto;
 
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.OrderStatus;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -10,9 +11,11 @@ public class OrderRequestDTO {
     private Long userId;
     private Long clientId;
     private Long tableId;
-    private String status;
+    private OrderStatus status;
     private String description;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private List<OrderItemDTO> items;
+    // Version the POS last read, checked on update; null skips the check
+    private Long version;
 
 }
\ No newline at end of file
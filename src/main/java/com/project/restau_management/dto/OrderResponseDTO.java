@@ -1,18 +1,19 @@
 package com.project.restau_management.dto;
 
+import com.project.restau_management.entity.Money;
 import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderStatus;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 public class OrderResponseDTO {
     private int orderId;
     private String description;
-    private String status;
-    private BigDecimal totalAmount;
+    private OrderStatus status;
+    private Money totalAmount;
     private String createdAt;
     private int userId;
+    private long version;
 
     // Static conversion method
     public static OrderResponseDTO fromEntity(Order order) {
@@ -22,6 +23,7 @@ public class OrderResponseDTO {
         dto.setStatus(order.getStatus());
         dto.setTotalAmount(order.getTotalAmount());
         dto.setCreatedAt(order.getCreatedAt().toString());
+        dto.setVersion(order.getVersion());
         return dto;
     }
 
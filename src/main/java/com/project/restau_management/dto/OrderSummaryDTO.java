@@ -0,0 +1,72 @@
+package com.project.restau_management.dto;
+
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.OrderStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read model for the POS order screens, filled by JPQL constructor queries so that listing
+ * orders never touches the Order entity graph
+ */
+@Data
+@NoArgsConstructor
+public class OrderSummaryDTO {
+    private int orderId;
+    private String description;
+    private OrderStatus status;
+    private Money totalAmount;
+    private String createdAt;
+    private String updatedAt;
+    private Integer userId;
+    private String username;
+    private Integer clientId;
+    private Integer tableId;
+    private Integer tableNumber;
+    private List<Line> items = new ArrayList<>();
+
+    public OrderSummaryDTO(int orderId, String description, OrderStatus status, Money totalAmount,
+                           LocalDateTime createdAt, LocalDateTime updatedAt, Integer userId, String username,
+                           Integer clientId, Integer tableId, Integer tableNumber) {
+        this.orderId = orderId;
+        this.description = description;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.createdAt = createdAt != null ? createdAt.toString() : null;
+        this.updatedAt = updatedAt != null ? updatedAt.toString() : null;
+        this.userId = userId;
+        this.username = username;
+        this.clientId = clientId;
+        this.tableId = tableId;
+        this.tableNumber = tableNumber;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Line {
+        private int orderId;
+        private int orderItemId;
+        private Integer productId;
+        private String productName;
+        private int quantity;
+        private Money unitPrice;
+        private Money subtotal;
+        private String details;
+
+        public Line(int orderId, int orderItemId, Integer productId, String productName, int quantity,
+                    Money unitPrice, Money subtotal, String details) {
+            this.orderId = orderId;
+            this.orderItemId = orderItemId;
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.subtotal = subtotal;
+            this.details = details;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.project.restau_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Envelope for keyset-paginated collections. Clients pass nextCursor back as the "after"
+ * parameter to get the following page; a null nextCursor means the last page was reached.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+
+    /**
+     * Clamp a requested page size to [1, MAX_LIMIT]
+     */
+    public static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    /**
+     * Build a page from a query that fetched one row more than the limit, to detect a next page
+     * without a count query
+     */
+    public static <T> PageResponse<T> of(List<T> fetched, int limit, Function<T, String> cursorOf) {
+        boolean hasMore = fetched.size() > limit;
+        List<T> items = hasMore ? fetched.subList(0, limit) : fetched;
+        String next = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new PageResponse<>(List.copyOf(items), next, hasMore, limit);
+    }
+
+    /**
+     * A cursor the client did not get from us, or tampered with; answered with 400
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidCursorException extends IllegalArgumentException {
+
+        public InvalidCursorException(String cursor, Throwable cause) {
+            super("Invalid page cursor: " + cursor, cause);
+        }
+    }
+
+    /**
+     * @throws InvalidCursorException if the cursor is not an id
+     */
+    public static int afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+
+    // Composite cursors for (timestamp, id) orderings, opaque to clients
+    public static String timeCursor(LocalDateTime time, int id) {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidCursorException if the cursor was not made by {@link #timeCursor}
+     */
+    public static LocalDateTime cursorTime(String cursor) {
+        try {
+            return LocalDateTime.parse(decode(cursor)[0]);
+        } catch (DateTimeException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+
+    /**
+     * @throws InvalidCursorException if the cursor was not made by {@link #timeCursor}
+     */
+    public static int cursorId(String cursor) {
+        try {
+            return Integer.parseInt(decode(cursor)[1]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+
+    private static String[] decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+        String[] parts = raw.split("\\|", 2);
+        if (parts.length != 2) {
+            throw new InvalidCursorException(cursor, null);
+        }
+        return parts;
+    }
+}
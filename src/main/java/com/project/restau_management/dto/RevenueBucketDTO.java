@@ -0,0 +1,15 @@
+package com.project.restau_management.dto;
+
+import com.project.restau_management.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucketDTO {
+    private String bucket;          // ISO day, ISO hour, or payment method id depending on the report
+    private long paymentCount;
+    private Money totalAmount;
+}
@@ -1,11 +1,16 @@
 package com.project.restau_management.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+// Reference data edited from the back office; a brief stale read after an edit is harmless
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "categories")
 @Table(name = "categories")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,39 @@
+package com.project.restau_management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The response given to the first request carrying an idempotency key, replayed to retries of
+ * that request.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body, so a key reused for a different request is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // Null while the first request is still being processed
+    private Integer statusCode;
+
+    @Column(columnDefinition = "longtext")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Start of the attempt holding the key; a newer one takes it over once idempotency.lease has passed
+    @Column(nullable = false)
+    private LocalDateTime claimedAt;
+}
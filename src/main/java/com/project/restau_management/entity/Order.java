@@ -1,13 +1,11 @@
 package com.project.restau_management.entity;
 
-
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,11 +28,17 @@ public class Order {
 
     private LocalDateTime updatedAt;
 
-    @Column(nullable = false)
-    private String status;
+    @Column(nullable = false, length = 1)
+    @Convert(converter = OrderStatus.Converter.class)
+    private OrderStatus status;
 
     @Column(nullable = false)
-    private BigDecimal totalAmount;
+    @Convert(converter = Money.Converter.class)
+    private Money totalAmount;
+
+    // Bumped on every update, so two terminals editing the same order cannot overwrite each other
+    @Version
+    private long version;
 
     @ManyToOne
     @JoinColumn(name = "user_id")
@@ -48,6 +52,11 @@ public class Order {
     @JoinColumn(name = "table_id")
     private RestaurantTable table;
 
+    // Every status change is checked against OrderStatus transitions; loading sets the field directly
+    public void setStatus(OrderStatus status) {
+        this.status = this.status == null ? status : this.status.transitionTo(status);
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -4,8 +4,6 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 @Entity
 @Table(name = "order_items")
 @Data
@@ -21,10 +19,12 @@ public class OrderItem {
     private int quantity;
 
     @Column(nullable = false)
-    private BigDecimal unitPrice;
+    @Convert(converter = Money.Converter.class)
+    private Money unitPrice;
 
     @Column(nullable = false)
-    private BigDecimal  subtotal;
+    @Convert(converter = Money.Converter.class)
+    private Money subtotal;
 
     private String details;
 
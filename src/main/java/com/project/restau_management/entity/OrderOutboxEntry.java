@@ -0,0 +1,53 @@
+package com.project.restau_management.entity;
+
+import com.project.restau_management.event.OrderChangedEvent;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to an order whose side effects still have to be carried out, recorded in the
+ * transaction that made the change. Carries what the handlers need, so they do not reload the order.
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@NoArgsConstructor
+public class OrderOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long outboxId;
+
+    @Column(nullable = false)
+    private int orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderChangedEvent.Type eventType;
+
+    // The table the order was seated at, if any
+    private Integer tableId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public OrderOutboxEntry(int orderId, OrderChangedEvent.Type eventType, Integer tableId) {
+        this.orderId = orderId;
+        this.eventType = eventType;
+        this.tableId = tableId;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = createdAt;
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.restau_management.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.AttributeConverter;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of an order.
+ * Stored as a one-character code and sent to clients as the label the POS already displays.
+ */
+public enum OrderStatus {
+
+    ON_GOING('O', "ON GOING"),
+    COMPLETED('C', "COMPLETED"),
+    CANCELLED('X', "CANCELLED");
+
+    // The only moves an order may make; completed and cancelled orders are final
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(ON_GOING, EnumSet.of(COMPLETED, CANCELLED));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    private final char code;
+    private final String label;
+
+    OrderStatus(char code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public char code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @return true for completed and cancelled orders, which must be closed through OrderService
+     */
+    public boolean isFinal() {
+        return TRANSITIONS.get(this).isEmpty();
+    }
+
+    public boolean canBecome(OrderStatus next) {
+        return next == this || TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * @return next, if an order in this status may move to it
+     * @throws IllegalStateException if the transition is not allowed
+     */
+    public OrderStatus transitionTo(OrderStatus next) {
+        if (next == null || !canBecome(next)) {
+            throw new IllegalStateException("Cannot move order from " + label + " to " + (next != null ? next.label : null));
+        }
+        return next;
+    }
+
+    /**
+     * Parse a status sent by a client, either its label ("ON GOING") or its name ("ON_GOING")
+     */
+    @JsonCreator
+    public static OrderStatus of(String value) {
+        for (OrderStatus status : values()) {
+            if (status.label.equalsIgnoreCase(value) || status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status: " + value);
+    }
+
+    public static OrderStatus fromCode(char code) {
+        return switch (code) {
+            case 'O' -> ON_GOING;
+            case 'C' -> COMPLETED;
+            case 'X' -> CANCELLED;
+            default -> throw new IllegalArgumentException("Unknown order status code: " + code);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+
+    @jakarta.persistence.Converter
+    public static class Converter implements AttributeConverter<OrderStatus, Character> {
+
+        @Override
+        public Character convertToDatabaseColumn(OrderStatus status) {
+            return status != null ? status.code : null;
+        }
+
+        @Override
+        public OrderStatus convertToEntityAttribute(Character code) {
+            return code != null ? fromCode(code) : null;
+        }
+    }
+}
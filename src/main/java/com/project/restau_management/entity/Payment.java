@@ -17,14 +17,16 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int paymentId;
 
-    @Column(nullable = false)
-    private float amount;
+    @Column(nullable = false, precision = 12, scale = 2)
+    @Convert(converter = Money.Converter.class)
+    private Money amount;
 
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @Column(nullable = false)
-    private String status;
+    @Column(nullable = false, length = 1)
+    @Convert(converter = PaymentStatus.Converter.class)
+    private PaymentStatus status;
 
     private String transactionId;
 
@@ -38,6 +40,11 @@ public class Payment {
     @JoinColumn(name = "payment_method_id")
     private PaymentMethod paymentMethod;
 
+    // Every status change is checked against PaymentStatus transitions; loading sets the field directly
+    public void setStatus(PaymentStatus status) {
+        this.status = this.status == null ? status : this.status.transitionTo(status);
+    }
+
     @PrePersist
     protected void onCreate() {
         timestamp = LocalDateTime.now();
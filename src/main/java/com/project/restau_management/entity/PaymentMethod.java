@@ -1,11 +1,16 @@
 package com.project.restau_management.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+// Reference data edited from the back office; a brief stale read after an edit is harmless
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "payment_methods")
 @Table(name = "payment_methods")
 @Data
 @NoArgsConstructor
@@ -25,6 +30,7 @@ public class PaymentMethod {
     @Column(nullable = false)
     private boolean isActive;
 
-    @Column(nullable = false)
-    private float processingFee;
+    @Column(nullable = false, precision = 12, scale = 2)
+    @Convert(converter = Money.Converter.class)
+    private Money processingFee;
 }
@@ -0,0 +1,43 @@
+package com.project.restau_management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payments aggregated per hour, status and payment method.
+ * Daily and per-method reports are summed from these rows instead of the payments table.
+ */
+@Entity
+@Table(name = "payment_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"bucket_hour", "status", "payment_method_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long rollupId;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketHour;
+
+    @Column(nullable = false, length = 1)
+    @Convert(converter = PaymentStatus.Converter.class)
+    private PaymentStatus status;
+
+    // 0 when the payment has no method, so the unique key still applies
+    @Column(nullable = false)
+    private int paymentMethodId;
+
+    @Column(nullable = false)
+    private long paymentCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Convert(converter = Money.Converter.class)
+    private Money totalAmount;
+}
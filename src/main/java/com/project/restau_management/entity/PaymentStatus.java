@@ -0,0 +1,95 @@
+package com.project.restau_management.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.AttributeConverter;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of a payment, stored as a one-character code.
+ */
+public enum PaymentStatus {
+
+    PENDING('P'),
+    COMPLETED('C'),
+    FAILED('F'),
+    REFUNDED('R');
+
+    // A failed payment may be retried, a completed one can only be refunded
+    private static final Map<PaymentStatus, Set<PaymentStatus>> TRANSITIONS = new EnumMap<>(PaymentStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(COMPLETED, FAILED));
+        TRANSITIONS.put(FAILED, EnumSet.of(PENDING));
+        TRANSITIONS.put(COMPLETED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(PaymentStatus.class));
+    }
+
+    private final char code;
+
+    PaymentStatus(char code) {
+        this.code = code;
+    }
+
+    public char code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return name();
+    }
+
+    public boolean canBecome(PaymentStatus next) {
+        return next == this || TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * @return next, if a payment in this status may move to it
+     * @throws IllegalStateException if the transition is not allowed
+     */
+    public PaymentStatus transitionTo(PaymentStatus next) {
+        if (next == null || !canBecome(next)) {
+            throw new IllegalStateException("Cannot move payment from " + this + " to " + next);
+        }
+        return next;
+    }
+
+    @JsonCreator
+    public static PaymentStatus of(String value) {
+        for (PaymentStatus status : values()) {
+            if (status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment status: " + value);
+    }
+
+    public static PaymentStatus fromCode(char code) {
+        return switch (code) {
+            case 'P' -> PENDING;
+            case 'C' -> COMPLETED;
+            case 'F' -> FAILED;
+            case 'R' -> REFUNDED;
+            default -> throw new IllegalArgumentException("Unknown payment status code: " + code);
+        };
+    }
+
+    @jakarta.persistence.Converter
+    public static class Converter implements AttributeConverter<PaymentStatus, Character> {
+
+        @Override
+        public Character convertToDatabaseColumn(PaymentStatus status) {
+            return status != null ? status.code : null;
+        }
+
+        @Override
+        public PaymentStatus convertToEntityAttribute(Character code) {
+            return code != null ? fromCode(code) : null;
+        }
+    }
+}
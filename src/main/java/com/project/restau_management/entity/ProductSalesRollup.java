@@ -0,0 +1,27 @@
+package com.project.restau_management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Running totals of order lines per product.
+ */
+@Entity
+@Table(name = "product_sales_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesRollup {
+
+    @Id
+    private int productId;
+
+    @Column(nullable = false)
+    private long quantitySold;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Convert(converter = Money.Converter.class)
+    private Money revenue;
+}
@@ -1,9 +1,15 @@
 package com.project.restau_management.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.*;
 
+// Soft-locked while written, so availability is never read stale. The claim/release bulk
+// updates make Hibernate drop the whole region, which is cheap at a few dozen tables
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tables")
 @Table(name = "tables")
 @Data
 @NoArgsConstructor
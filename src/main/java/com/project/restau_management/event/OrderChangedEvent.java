@@ -0,0 +1,16 @@
+package com.project.restau_management.event;
+
+/**
+ * Published whenever an order or its lines are written.
+ * Listeners that need the order state reload it themselves once the change is committed.
+ */
+public record OrderChangedEvent(int orderId, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        COMPLETED,
+        CANCELLED,
+        DELETED
+    }
+}
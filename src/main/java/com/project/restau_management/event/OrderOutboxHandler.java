@@ -0,0 +1,14 @@
+package com.project.restau_management.event;
+
+import com.project.restau_management.entity.OrderOutboxEntry;
+
+import java.util.List;
+
+/**
+ * Carries out side effects of committed order changes, a batch at a time, for the outbox dispatcher.
+ * A batch that fails is handed over again, entry by entry, so handling must be idempotent.
+ */
+public interface OrderOutboxHandler {
+
+    void handle(List<OrderOutboxEntry> entries);
+}
@@ -1,6 +1,7 @@
 package com.project.restau_management.repository;
 
 import com.project.restau_management.entity.Client;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -10,4 +11,5 @@ public interface ClientRepository extends JpaRepository<Client, Integer> {
     List<Client> findByFirstNameContainingIgnoreCase(String firstName);
     List<Client> findByLastNameContainingIgnoreCase(String lastName);
     List<Client> findByFirstNameAndLastName(String firstName, String lastName);
+    List<Client> findByClientIdGreaterThanOrderByClientIdAsc(int afterId, Pageable pageable);
 }
\ No newline at end of file
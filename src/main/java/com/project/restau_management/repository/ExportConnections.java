@@ -0,0 +1,69 @@
+package com.project.restau_management.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Connections for the month-end exports. On MySQL they come from a small pool of their own with
+ * useCursorFetch on, so only the export statements read through server-side cursors: the rest of
+ * the application keeps client-side prepared statements and batch rewriting, and a long export
+ * never holds a connection the POS needs. Other databases stream from the main pool.
+ */
+@Component
+public class ExportConnections implements DisposableBean {
+
+    // Rows pulled per round trip through the cursor, instead of buffering the whole result in the heap
+    static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HikariDataSource cursorPool;
+
+    @Autowired
+    public ExportConnections(DataSource dataSource, DataSourceProperties properties,
+                             @Value("${export.pool.max-size:2}") int maxPoolSize) {
+        String url = properties.determineUrl();
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            cursorPool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            cursorPool.setPoolName("export");
+            cursorPool.setMaximumPoolSize(maxPoolSize);
+            cursorPool.setMinimumIdle(0);
+            cursorPool.addDataSourceProperty("useCursorFetch", "true");
+            dataSource = cursorPool;
+        } else {
+            cursorPool = null;
+        }
+        jdbcTemplate = streaming(dataSource);
+    }
+
+    /**
+     * Stream from the given data source as it is, e.g. outside the application context
+     */
+    public ExportConnections(DataSource dataSource) {
+        this.cursorPool = null;
+        this.jdbcTemplate = streaming(dataSource);
+    }
+
+    JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void destroy() {
+        if (cursorPool != null) {
+            cursorPool.close();
+        }
+    }
+
+    private static JdbcTemplate streaming(DataSource dataSource) {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(FETCH_SIZE);
+        return streaming;
+    }
+}
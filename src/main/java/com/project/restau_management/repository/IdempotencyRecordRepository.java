@@ -0,0 +1,48 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Unlike save(), never overwrites: a key that is already taken inserts nothing and returns 0
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (idempotency_key, request_hash, created_at, claimed_at) " +
+            "VALUES (:key, :requestHash, :now, :now)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash, @Param("now") LocalDateTime now);
+
+    // Takes over a key whose attempt has been unanswered since before staleBefore; 0 if another retry got it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.claimedAt = :now " +
+            "WHERE r.idempotencyKey = :key AND r.statusCode IS NULL AND r.claimedAt < :staleBefore")
+    int reclaim(@Param("key") String key, @Param("staleBefore") LocalDateTime staleBefore,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :responseBody " +
+            "WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody);
+
+    // Gives the key back after a failure worth retrying; completed responses are kept
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.statusCode IS NULL")
+    int release(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
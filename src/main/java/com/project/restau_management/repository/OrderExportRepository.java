@@ -0,0 +1,23 @@
+package com.project.restau_management.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface OrderExportRepository {
+
+    // One row per order line; an order without lines gives one row with null line columns
+    record OrderLineRow(int orderId, LocalDateTime createdAt, String status, String description,
+                        BigDecimal totalAmount, Integer clientId, Integer userId, Integer tableNumber,
+                        Integer orderItemId, Integer productId, String productName, Integer quantity,
+                        BigDecimal unitPrice, BigDecimal subtotal, String details) {
+    }
+
+    /**
+     * Stream the lines of the orders created in a time range, oldest order first and the lines of
+     * an order next to each other, over a forward-only cursor. The stream holds a connection until
+     * it is closed.
+     * @param clientId Only this client's orders, or all orders when null
+     */
+    Stream<OrderLineRow> streamOrderLines(Integer clientId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,56 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class OrderExportRepositoryImpl implements OrderExportRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT o.order_id, o.created_at, o.status, o.description, o.total_amount, o.client_id, o.user_id, " +
+            "t.table_number, i.order_item_id, i.product_id, p.name, i.quantity, i.unit_price, i.subtotal, i.details " +
+            "FROM orders o " +
+            "LEFT JOIN tables t ON t.table_id = o.table_id " +
+            "LEFT JOIN order_items i ON i.order_id = o.order_id " +
+            "LEFT JOIN products p ON p.product_id = i.product_id " +
+            "WHERE o.created_at BETWEEN ? AND ? ";
+
+    private static final String ORDER_BY = "ORDER BY o.created_at, o.order_id, i.order_item_id";
+
+    private static final RowMapper<OrderLineRow> ROW_MAPPER = (rs, rowNum) -> new OrderLineRow(
+            rs.getInt(1),
+            rs.getTimestamp(2).toLocalDateTime(),
+            OrderStatus.fromCode(rs.getString(3).charAt(0)).label(),
+            rs.getString(4),
+            rs.getBigDecimal(5),
+            rs.getObject(6, Integer.class),
+            rs.getObject(7, Integer.class),
+            rs.getObject(8, Integer.class),
+            rs.getObject(9, Integer.class),
+            rs.getObject(10, Integer.class),
+            rs.getString(11),
+            rs.getObject(12, Integer.class),
+            rs.getBigDecimal(13),
+            rs.getBigDecimal(14),
+            rs.getString(15));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderExportRepositoryImpl(ExportConnections exportConnections) {
+        this.jdbcTemplate = exportConnections.getJdbcTemplate();
+    }
+
+    @Override
+    public Stream<OrderLineRow> streamOrderLines(Integer clientId, LocalDateTime from, LocalDateTime to) {
+        if (clientId == null) {
+            return jdbcTemplate.queryForStream(SELECT_SQL + ORDER_BY, ROW_MAPPER,
+                    Timestamp.valueOf(from), Timestamp.valueOf(to));
+        }
+        return jdbcTemplate.queryForStream(SELECT_SQL + "AND o.client_id = ? " + ORDER_BY, ROW_MAPPER,
+                Timestamp.valueOf(from), Timestamp.valueOf(to), clientId);
+    }
+}
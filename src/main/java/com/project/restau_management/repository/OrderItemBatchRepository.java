@@ -0,0 +1,16 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.OrderItem;
+
+import java.util.List;
+
+public interface OrderItemBatchRepository {
+
+    /**
+     * Insert all items in a single JDBC batch. OrderItem ids are IDENTITY generated,
+     * which stops Hibernate from batching inserts, so this bypasses the persistence context.
+     * @param items Items whose order has already been persisted
+     * @return The number of inserted rows
+     */
+    int batchInsert(List<OrderItem> items);
+}
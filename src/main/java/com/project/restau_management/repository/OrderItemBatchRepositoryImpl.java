@@ -0,0 +1,41 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.OrderItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+
+public class OrderItemBatchRepositoryImpl implements OrderItemBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO order_items (quantity, unit_price, subtotal, details, order_id, product_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderItemBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int batchInsert(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, items, items.size(), (ps, item) -> {
+            ps.setInt(1, item.getQuantity());
+            ps.setBigDecimal(2, item.getUnitPrice().toBigDecimal());
+            ps.setBigDecimal(3, item.getSubtotal().toBigDecimal());
+            ps.setString(4, item.getDetails());
+            ps.setInt(5, item.getOrder().getOrderId());
+            if (item.getProduct() != null) {
+                ps.setInt(6, item.getProduct().getProductId());
+            } else {
+                ps.setNull(6, Types.INTEGER);
+            }
+        });
+        return items.size();
+    }
+}
@@ -1,22 +1,36 @@
 package com.project.restau_management.repository;
 
+import com.project.restau_management.dto.OrderSummaryDTO;
 import com.project.restau_management.entity.Order;
 import com.project.restau_management.entity.OrderItem;
 import com.project.restau_management.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Integer>, OrderItemBatchRepository {
     List<OrderItem> findByOrder(Order order);
     List<OrderItem> findByProduct(Product product);
+    List<OrderItem> findByOrderItemIdGreaterThanOrderByOrderItemIdAsc(int afterId, Pageable pageable);
+
+    @Query("SELECT new com.project.restau_management.dto.OrderSummaryDTO$Line(" +
+            "oi.order.orderId, oi.orderItemId, p.productId, p.name, oi.quantity, oi.unitPrice, oi.subtotal, oi.details) " +
+            "FROM OrderItem oi LEFT JOIN oi.product p WHERE oi.order.orderId IN :orderIds ORDER BY oi.orderItemId")
+    List<OrderSummaryDTO.Line> findSummaryLinesByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
 
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.orderId = :orderId")
     List<OrderItem> findByOrderId(@Param("orderId") int orderId);
 
+    // All lines of an order with their eagerly mapped product graph, in one statement instead of one per product
+    @Query("SELECT oi FROM OrderItem oi LEFT JOIN FETCH oi.product p LEFT JOIN FETCH p.category " +
+            "LEFT JOIN FETCH p.productFamily pf LEFT JOIN FETCH pf.category WHERE oi.order.orderId = :orderId")
+    List<OrderItem> findWithProductsByOrderId(@Param("orderId") int orderId);
+
     @Query("SELECT oi FROM OrderItem oi WHERE oi.product.productId = :productId")
     List<OrderItem> findByProductId(@Param("productId") int productId);
 
@@ -1,9 +1,12 @@
 package com.project.restau_management.repository;
 
+import com.project.restau_management.dto.OrderSummaryDTO;
 import com.project.restau_management.entity.Client;
 import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderStatus;
 import com.project.restau_management.entity.User;
 import jakarta.persistence.Table;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,31 +18,70 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
-    List<Order> findByStatus(String status);
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderExportRepository {
+    List<Order> findByStatus(OrderStatus status);
     List<Order> findByUser(User user);
     List<Order> findByClient(Client client);
     List<Order> findByTable(Table table);
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
     @Query("SELECT o FROM Order o WHERE o.status = :status AND o.createdAt >= :date")
-    List<Order> findByStatusAndCreatedAfter(@Param("status") String status, @Param("date") LocalDateTime date);
+    List<Order> findByStatusAndCreatedAfter(@Param("status") OrderStatus status, @Param("date") LocalDateTime date);
 
     @Query("SELECT o FROM Order o WHERE o.user.userId = :userId")
     List<Order> findByUserId(@Param("userId") int userId);
 
     @Query("SELECT o FROM Order o WHERE o.table.tableId = :tableId AND o.status = :status")
-    List<Order> findByTableIdAndStatus(@Param("tableId") int tableId, @Param("status") String status);
+    List<Order> findByTableIdAndStatus(@Param("tableId") int tableId, @Param("status") OrderStatus status);
 
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@PathVariable Long id);
 
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.orderId = :orderId")
+    Optional<Order> findWithItemsByOrderId(@Param("orderId") int orderId);
+
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.status = :status")
-    List<Order> findByStatusWithItems(@Param("status") String status);
+    List<Order> findByStatusWithItems(@Param("status") OrderStatus status);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product WHERE o.status = :status ORDER BY o.createdAt")
+    List<Order> findKitchenQueueByStatus(@Param("status") OrderStatus status);
+
+    // POS read model: one statement for the order headers, lines are loaded in a second one
+    String SUMMARY_SELECT = "SELECT new com.project.restau_management.dto.OrderSummaryDTO(" +
+            "o.orderId, o.description, o.status, o.totalAmount, o.createdAt, o.updatedAt, " +
+            "u.userId, u.username, c.clientId, t.tableId, t.tableNumber) " +
+            "FROM Order o LEFT JOIN o.user u LEFT JOIN o.client c LEFT JOIN o.table t ";
+
+    @Query(SUMMARY_SELECT + "WHERE o.status = :status ORDER BY o.createdAt")
+    List<OrderSummaryDTO> findSummariesByStatus(@Param("status") OrderStatus status);
+
+    @Query(SUMMARY_SELECT + "WHERE u.userId = :userId ORDER BY o.createdAt")
+    List<OrderSummaryDTO> findSummariesByUserId(@Param("userId") int userId);
+
+    @Query(SUMMARY_SELECT + "WHERE o.createdAt >= :start AND o.createdAt < :end ORDER BY o.createdAt")
+    List<OrderSummaryDTO> findSummariesCreatedBetween(@Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
+
+    @Query(SUMMARY_SELECT + "WHERE o.orderId = :orderId")
+    Optional<OrderSummaryDTO> findSummaryById(@Param("orderId") int orderId);
 
     List<Order> findByClient_ClientIdOrderByCreatedAtDesc(int clientId);
 
     List<Order> findByClient_ClientIdAndCreatedAtBetweenOrderByCreatedAtDesc(
             int clientId, LocalDateTime from, LocalDateTime to);
 
+    // Keyset pages: never offset, never a full table load
+    @Query(SUMMARY_SELECT + "WHERE o.orderId > :afterId ORDER BY o.orderId")
+    List<OrderSummaryDTO> findSummaryPageAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE c.clientId = :clientId AND o.createdAt BETWEEN :from AND :to " +
+            "AND (o.createdAt < :beforeTime OR (o.createdAt = :beforeTime AND o.orderId < :beforeId)) " +
+            "ORDER BY o.createdAt DESC, o.orderId DESC")
+    List<OrderSummaryDTO> findClientSummaryPageBefore(@Param("clientId") int clientId,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to,
+                                                      @Param("beforeTime") LocalDateTime beforeTime,
+                                                      @Param("beforeId") int beforeId,
+                                                      Pageable pageable);
+
 }
\ No newline at end of file
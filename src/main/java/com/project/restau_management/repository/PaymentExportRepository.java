@@ -0,0 +1,18 @@
+package com.project.restau_management.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface PaymentExportRepository {
+
+    record PaymentRow(int paymentId, LocalDateTime timestamp, String status, BigDecimal amount,
+                      String transactionId, String receiptNumber, Integer orderId, String paymentMethod) {
+    }
+
+    /**
+     * Stream the payments of a time range, oldest first, over a forward-only cursor.
+     * The stream holds a connection until it is closed.
+     */
+    Stream<PaymentRow> streamPaymentsBetween(LocalDateTime start, LocalDateTime end);
+}
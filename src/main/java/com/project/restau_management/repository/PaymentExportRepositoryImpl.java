@@ -0,0 +1,35 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.PaymentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class PaymentExportRepositoryImpl implements PaymentExportRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT p.payment_id, p.timestamp, p.status, p.amount, p.transaction_id, p.receipt_number, " +
+            "p.order_id, m.name FROM payments p LEFT JOIN payment_methods m ON m.method_id = p.payment_method_id " +
+            "WHERE p.timestamp BETWEEN ? AND ? ORDER BY p.timestamp, p.payment_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentExportRepositoryImpl(ExportConnections exportConnections) {
+        this.jdbcTemplate = exportConnections.getJdbcTemplate();
+    }
+
+    @Override
+    public Stream<PaymentRow> streamPaymentsBetween(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForStream(SELECT_SQL, (rs, rowNum) -> new PaymentRow(
+                rs.getInt(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                PaymentStatus.fromCode(rs.getString(3).charAt(0)).label(),
+                rs.getBigDecimal(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getObject(7, Integer.class),
+                rs.getString(8)), Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+}
@@ -1,14 +1,24 @@
 package com.project.restau_management.repository;
 
 import com.project.restau_management.entity.PaymentMethod;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentMethodRepository extends JpaRepository<PaymentMethod, Integer> {
+    // Read on every checkout, changed almost never: results come from the query cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Override
+    List<PaymentMethod> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<PaymentMethod> findByIsActive(boolean isActive);
+
     Optional<PaymentMethod> findByType(String type);
     List<PaymentMethod> findByTypeContainingIgnoreCase(String type);
     List<PaymentMethod> findByNameContainingIgnoreCase(String name);
@@ -3,18 +3,21 @@ package com.project.restau_management.repository;
 import com.project.restau_management.entity.Order;
 import com.project.restau_management.entity.Payment;
 import com.project.restau_management.entity.PaymentMethod;
+import com.project.restau_management.entity.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Integer> {
+public interface PaymentRepository extends JpaRepository<Payment, Integer>, PaymentExportRepository {
     Optional<Payment> findByOrder(Order order);
-    List<Payment> findByStatus(String status);
+    List<Payment> findByStatus(PaymentStatus status);
     List<Payment> findByPaymentMethod(PaymentMethod paymentMethod);
     List<Payment> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
     Optional<Payment> findByTransactionId(String transactionId);
@@ -23,6 +26,19 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     @Query("SELECT p FROM Payment p WHERE p.order.orderId = :orderId")
     Optional<Payment> findByOrderId(@Param("orderId") int orderId);
 
+    List<Payment> findByPaymentIdGreaterThanOrderByPaymentIdAsc(int afterId, Pageable pageable);
+
+    List<Payment> findByStatusAndPaymentIdGreaterThanOrderByPaymentIdAsc(PaymentStatus status, int afterId, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.timestamp BETWEEN :start AND :end " +
+            "AND (p.timestamp > :afterTime OR (p.timestamp = :afterTime AND p.paymentId > :afterId)) " +
+            "ORDER BY p.timestamp, p.paymentId")
+    List<Payment> findDateRangePageAfter(@Param("start") LocalDateTime start,
+                                         @Param("end") LocalDateTime end,
+                                         @Param("afterTime") LocalDateTime afterTime,
+                                         @Param("afterId") int afterId,
+                                         Pageable pageable);
+
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = :status AND p.timestamp >= :date")
-    Double getTotalAmountByStatusAndDate(@Param("status") String status, @Param("date") LocalDateTime date);
+    BigDecimal getTotalAmountByStatusAndDate(@Param("status") PaymentStatus status, @Param("date") LocalDateTime date);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.PaymentRollup;
+import com.project.restau_management.entity.PaymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentRollupRepository extends JpaRepository<PaymentRollup, Long>, RollupUpsertRepository {
+    List<PaymentRollup> findByStatusAndBucketHourGreaterThanEqualAndBucketHourLessThanOrderByBucketHour(
+            PaymentStatus status, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT SUM(r.totalAmount) FROM PaymentRollup r WHERE r.status = :status AND r.bucketHour >= :from")
+    BigDecimal getTotalAmountByStatusSince(@Param("status") PaymentStatus status, @Param("from") LocalDateTime from);
+}
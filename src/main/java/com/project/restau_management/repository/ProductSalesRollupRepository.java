@@ -0,0 +1,13 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.ProductSalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSalesRollupRepository extends JpaRepository<ProductSalesRollup, Integer> {
+    List<ProductSalesRollup> findAllByOrderByQuantitySoldDesc(Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RollupUpsertRepository {
+
+    record PaymentDelta(LocalDateTime bucketHour, PaymentStatus status, int paymentMethodId, long count, Money amount) {
+    }
+
+    record SalesDelta(int productId, long quantity, Money revenue) {
+    }
+
+    /**
+     * Add the deltas to their hourly payment buckets, creating missing buckets, in one batch
+     */
+    void addPayments(List<PaymentDelta> deltas);
+
+    /**
+     * Add the deltas to the per-product sales totals, creating missing rows, in one batch
+     */
+    void addSales(List<SalesDelta> deltas);
+
+    /**
+     * Recompute the hourly payment buckets by streaming the payments table once
+     */
+    void rebuildPayments();
+
+    /**
+     * Recompute the product sales totals from order_items with a single INSERT ... SELECT
+     */
+    void rebuildSales();
+
+    void deleteAllRollups();
+}
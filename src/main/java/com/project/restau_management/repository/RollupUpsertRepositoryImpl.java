@@ -0,0 +1,96 @@
+package com.project.restau_management.repository;
+
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.PaymentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RollupUpsertRepositoryImpl implements RollupUpsertRepository {
+
+    // ON DUPLICATE KEY UPDATE keeps concurrent increments atomic without a read first
+    private static final String UPSERT_PAYMENT_SQL =
+            "INSERT INTO payment_rollups (bucket_hour, status, payment_method_id, payment_count, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "payment_count = payment_count + VALUES(payment_count), total_amount = total_amount + VALUES(total_amount)";
+
+    private static final String UPSERT_SALES_SQL =
+            "INSERT INTO product_sales_rollups (product_id, quantity_sold, revenue) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity_sold = quantity_sold + VALUES(quantity_sold), revenue = revenue + VALUES(revenue)";
+
+    private static final String REBUILD_SALES_SQL =
+            "INSERT INTO product_sales_rollups (product_id, quantity_sold, revenue) " +
+            "SELECT product_id, SUM(quantity), SUM(subtotal) FROM order_items WHERE product_id IS NOT NULL GROUP BY product_id";
+
+    private static final String SELECT_PAYMENTS_SQL =
+            "SELECT timestamp, status, payment_method_id, amount FROM payments";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RollupUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addPayments(List<PaymentDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_PAYMENT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(delta.bucketHour()));
+            ps.setString(2, String.valueOf(delta.status().code()));
+            ps.setInt(3, delta.paymentMethodId());
+            ps.setLong(4, delta.count());
+            ps.setBigDecimal(5, delta.amount().toBigDecimal());
+        });
+    }
+
+    @Override
+    public void addSales(List<SalesDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SALES_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setInt(1, delta.productId());
+            ps.setLong(2, delta.quantity());
+            ps.setBigDecimal(3, delta.revenue().toBigDecimal());
+        });
+    }
+
+    @Override
+    public void rebuildPayments() {
+        record Bucket(LocalDateTime hour, PaymentStatus status, int methodId) {
+        }
+        Map<Bucket, PaymentDelta> buckets = new HashMap<>();
+
+        jdbcTemplate.query(SELECT_PAYMENTS_SQL, rs -> {
+            Bucket bucket = new Bucket(
+                    rs.getTimestamp(1).toLocalDateTime().truncatedTo(ChronoUnit.HOURS),
+                    PaymentStatus.fromCode(rs.getString(2).charAt(0)),
+                    rs.getInt(3));
+            Money amount = Money.of(rs.getBigDecimal(4));
+            buckets.merge(bucket, new PaymentDelta(bucket.hour(), bucket.status(), bucket.methodId(), 1, amount),
+                    (a, b) -> new PaymentDelta(a.bucketHour(), a.status(), a.paymentMethodId(),
+                            a.count() + b.count(), a.amount().plus(b.amount())));
+        });
+
+        addPayments(new ArrayList<>(buckets.values()));
+    }
+
+    @Override
+    public void rebuildSales() {
+        jdbcTemplate.update(REBUILD_SALES_SQL);
+    }
+
+    @Override
+    public void deleteAllRollups() {
+        jdbcTemplate.update("DELETE FROM payment_rollups");
+        jdbcTemplate.update("DELETE FROM product_sales_rollups");
+    }
+}
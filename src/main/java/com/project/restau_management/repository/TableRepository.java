@@ -1,15 +1,51 @@
 package com.project.restau_management.repository;
 
+import com.project.restau_management.entity.OrderStatus;
 import com.project.restau_management.entity.RestaurantTable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TableRepository extends JpaRepository<RestaurantTable, Integer> {
     Optional<RestaurantTable> findByTableNumber(int tableNumber);
+    // Polled by every POS; Hibernate drops the cached result whenever a table row changes
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<RestaurantTable> findByIsAvailable(boolean isAvailable);
+    long countByIsAvailable(boolean isAvailable);
     List<RestaurantTable> findByCapacityGreaterThanEqual(int capacity);
     List<RestaurantTable> findByIsAvailableAndCapacityGreaterThanEqual(boolean isAvailable, int capacity);
-}
\ No newline at end of file
+
+    // Conditional updates: the row only changes if it is in the expected state, so 0 means someone else won
+    @Transactional
+    @Modifying
+    @Query("UPDATE RestaurantTable t SET t.isAvailable = false WHERE t.tableId = :tableId AND t.isAvailable = true")
+    int claim(@Param("tableId") int tableId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RestaurantTable t SET t.isAvailable = true WHERE t.tableId = :tableId AND t.isAvailable = false")
+    int release(@Param("tableId") int tableId);
+
+    // Skips tables a new order has been seated at since, so handing the same release over twice is harmless
+    @Transactional
+    @Modifying
+    @Query("UPDATE RestaurantTable t SET t.isAvailable = true WHERE t.tableId IN :tableIds AND t.isAvailable = false " +
+            "AND NOT EXISTS (SELECT o.orderId FROM Order o WHERE o.table = t AND o.status = :seated)")
+    int releaseIdle(@Param("tableIds") Collection<Integer> tableIds, @Param("seated") OrderStatus seated);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RestaurantTable t SET t.isAvailable = :available WHERE t.tableId = :tableId")
+    int updateAvailability(@Param("tableId") int tableId, @Param("available") boolean available);
+}
@@ -13,6 +13,9 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -22,11 +25,14 @@ public class CategoryService {
     }
 
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        menuCatalogService.refresh();
+        return saved;
     }
 
     public void deleteCategory(int id) {
         categoryRepository.deleteById(id);
+        menuCatalogService.refresh();
     }
 
     public Optional<Category> findByName(String name) {
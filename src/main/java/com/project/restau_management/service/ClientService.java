@@ -1,8 +1,10 @@
 package com.project.restau_management.service;
 
+import com.project.restau_management.dto.PageResponse;
 import com.project.restau_management.entity.Client;
 import com.project.restau_management.repository.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +19,13 @@ public class ClientService {
         return clientRepository.findAll();
     }
 
+    public PageResponse<Client> getClientsPage(String after, Integer limit) {
+        int size = PageResponse.limit(limit);
+        List<Client> rows = clientRepository.findByClientIdGreaterThanOrderByClientIdAsc(
+                PageResponse.afterId(after), PageRequest.of(0, size + 1));
+        return PageResponse.of(rows, size, c -> String.valueOf(c.getClientId()));
+    }
+
     public Optional<Client> getClientById(int id) {
         return clientRepository.findById(id);
     }
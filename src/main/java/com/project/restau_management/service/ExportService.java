@@ -0,0 +1,222 @@
+package com.project.restau_management.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.project.restau_management.repository.OrderExportRepository.OrderLineRow;
+import com.project.restau_management.repository.OrderRepository;
+import com.project.restau_management.repository.PaymentExportRepository.PaymentRow;
+import com.project.restau_management.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Month-end exports written row by row straight from a database cursor to the response,
+ * so memory use does not depend on the size of the export.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use csv or ndjson)");
+            }
+        }
+    }
+
+    private static final JsonFactory JSON = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    public long exportPayments(LocalDateTime start, LocalDateTime end, Format format, OutputStream out) throws IOException {
+        try (Stream<PaymentRow> rows = paymentRepository.streamPaymentsBetween(start, end)) {
+            return writePayments(rows, format, out);
+        }
+    }
+
+    public long exportOrders(Integer clientId, LocalDateTime from, LocalDateTime to, Format format, OutputStream out)
+            throws IOException {
+        try (Stream<OrderLineRow> rows = orderRepository.streamOrderLines(clientId, from, to)) {
+            return writeOrderLines(rows, format, out);
+        }
+    }
+
+    /**
+     * Write payments as CSV (one row per payment) or NDJSON (one object per line)
+     * @return The number of payments written
+     */
+    public long writePayments(Stream<PaymentRow> rows, Format format, OutputStream out) throws IOException {
+        Iterator<PaymentRow> it = rows.iterator();
+        long count = 0;
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write("payment_id,timestamp,status,amount,transaction_id,receipt_number,order_id,payment_method\n");
+            while (it.hasNext()) {
+                PaymentRow p = it.next();
+                csv(writer, p.paymentId(), p.timestamp(), p.status(), p.amount(), p.transactionId(),
+                        p.receiptNumber(), p.orderId(), p.paymentMethod());
+                count++;
+            }
+            writer.flush();
+            return count;
+        }
+
+        try (JsonGenerator json = ndjson(out)) {
+            while (it.hasNext()) {
+                PaymentRow p = it.next();
+                json.writeStartObject();
+                json.writeNumberField("paymentId", p.paymentId());
+                json.writeStringField("timestamp", p.timestamp().toString());
+                json.writeStringField("status", p.status());
+                json.writeNumberField("amount", p.amount());
+                json.writeStringField("transactionId", p.transactionId());
+                json.writeStringField("receiptNumber", p.receiptNumber());
+                writeNullableNumber(json, "orderId", p.orderId());
+                json.writeStringField("paymentMethod", p.paymentMethod());
+                json.writeEndObject();
+                json.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write orders with their lines: CSV gets one row per line with the order columns repeated,
+     * NDJSON gets one object per order with its lines nested. Rows must arrive grouped by order.
+     * @return The number of rows read
+     */
+    public long writeOrderLines(Stream<OrderLineRow> rows, Format format, OutputStream out) throws IOException {
+        Iterator<OrderLineRow> it = rows.iterator();
+        long count = 0;
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write("order_id,created_at,status,description,total_amount,client_id,user_id,table_number," +
+                    "order_item_id,product_id,product_name,quantity,unit_price,subtotal,details\n");
+            while (it.hasNext()) {
+                OrderLineRow r = it.next();
+                csv(writer, r.orderId(), r.createdAt(), r.status(), r.description(), r.totalAmount(), r.clientId(),
+                        r.userId(), r.tableNumber(), r.orderItemId(), r.productId(), r.productName(), r.quantity(),
+                        r.unitPrice(), r.subtotal(), r.details());
+                count++;
+            }
+            writer.flush();
+            return count;
+        }
+
+        try (JsonGenerator json = ndjson(out)) {
+            int currentOrder = -1;
+            while (it.hasNext()) {
+                OrderLineRow r = it.next();
+                if (r.orderId() != currentOrder) {
+                    if (currentOrder != -1) {
+                        endOrder(json);
+                    }
+                    currentOrder = r.orderId();
+                    json.writeStartObject();
+                    json.writeNumberField("orderId", r.orderId());
+                    json.writeStringField("createdAt", r.createdAt().toString());
+                    json.writeStringField("status", r.status());
+                    json.writeStringField("description", r.description());
+                    json.writeNumberField("totalAmount", r.totalAmount());
+                    writeNullableNumber(json, "clientId", r.clientId());
+                    writeNullableNumber(json, "userId", r.userId());
+                    writeNullableNumber(json, "tableNumber", r.tableNumber());
+                    json.writeArrayFieldStart("items");
+                }
+                if (r.orderItemId() != null) {
+                    json.writeStartObject();
+                    json.writeNumberField("orderItemId", r.orderItemId());
+                    writeNullableNumber(json, "productId", r.productId());
+                    json.writeStringField("productName", r.productName());
+                    writeNullableNumber(json, "quantity", r.quantity());
+                    json.writeNumberField("unitPrice", r.unitPrice());
+                    json.writeNumberField("subtotal", r.subtotal());
+                    json.writeStringField("details", r.details());
+                    json.writeEndObject();
+                }
+                count++;
+            }
+            if (currentOrder != -1) {
+                endOrder(json);
+            }
+        }
+        return count;
+    }
+
+    private static JsonGenerator ndjson(OutputStream out) throws IOException {
+        JsonGenerator json = JSON.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE));
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    private static void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String field, Integer value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private static void csv(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write('\n');
+    }
+}
@@ -1,59 +1,226 @@
 package com.project.restau_management.service;
 
+import com.project.restau_management.entity.MediaBlob;
+import com.project.restau_management.repository.MediaBlobRepository;
+import com.project.restau_management.storage.BlobStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 @Service
 public class FileStorageService {
 
-    @Value("${file.upload.dir:uploads}")
-    private String uploadDir;
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
 
-    @Value("${server.servlet.context-path:}")
-    private String contextPath;
+    /**
+     * Resized copies stored next to an original, e.g. abc.png gets abc-thumb.webp and abc-medium.webp
+     */
+    public enum ImageVariant {
+        THUMB("thumb", 160),
+        MEDIUM("medium", 480);
+
+        private final String suffix;
+        private final int maxSize;
+
+        ImageVariant(String suffix, int maxSize) {
+            this.suffix = suffix;
+            this.maxSize = maxSize;
+        }
+
+        public String getSuffix() {
+            return suffix;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public static ImageVariant fromParameter(String size) {
+            for (ImageVariant variant : values()) {
+                if (variant.suffix.equalsIgnoreCase(size)) {
+                    return variant;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Formats a variant may be stored in, most compact first
+    public static final List<String> VARIANT_EXTENSIONS = List.of("webp", "jpg", "png");
+
+    private static final float VARIANT_QUALITY = 0.8f;
+
+    // Content-addressed uploads live under /media/<first two hex digits>/<sha-256>.<ext>
+    public static final String MEDIA_DIRECTORY = "media";
+
+    // Serializes store and release of the same blob, so a release can never delete a file
+    // that a concurrent upload of the same content has just been handed back
+    private final ReentrantLock[] blobLocks = new ReentrantLock[64];
+
+    // Uploads are staged here before they are hashed and handed to the blob store; on the same
+    // file system as a local store, so handing over is a rename
+    @Value("${storage.staging-dir:${file.upload.dir:uploads}/.staging}")
+    private String stagingDir;
+
+    @Value("${storage.executor.threads:4}")
+    private int storageThreads;
+
+    @Value("${storage.executor.queue-capacity:100}")
+    private int storageQueueCapacity;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private Environment environment;
+
+    // Upload hashing and writes and orphan deletion, kept off servlet threads and apart from the
+    // variant rendering on the application executor
+    private ThreadPoolTaskExecutor storageExecutor;
+
+    public FileStorageService() {
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    void startStorageExecutor() {
+        storageExecutor = new ThreadPoolTaskExecutor();
+        storageExecutor.setThreadNamePrefix("storage-");
+        // Still bounded by the pool size, but blocking on the store no longer holds a platform thread
+        storageExecutor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        storageExecutor.setCorePoolSize(storageThreads);
+        storageExecutor.setMaxPoolSize(storageThreads);
+        storageExecutor.setQueueCapacity(storageQueueCapacity);
+        storageExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        storageExecutor.setAwaitTerminationSeconds(30);
+        storageExecutor.initialize();
+    }
+
+    @PreDestroy
+    void stopStorageExecutor() {
+        storageExecutor.shutdown();
+    }
 
     /**
-     * Store an uploaded file in the specified subdirectory
+     * The executor upload requests hand their work to, e.g. with a WebAsyncTask, so the servlet
+     * thread is released while the file is hashed and written to the blob store
+     */
+    public AsyncTaskExecutor getStorageExecutor() {
+        return storageExecutor;
+    }
+
+    /**
+     * Store an uploaded file once per distinct content. The upload is staged on disk, hashed with
+     * SHA-256 and only then handed to the blob store; if the same content is already stored, its
+     * reference count goes up and the existing path is returned. Resized image variants are
+     * generated in the background.
      * @param file The MultipartFile to store
-     * @param subDirectory The subdirectory within the upload directory
      * @return The relative URL path to access the stored file
      * @throws IOException If file storage fails
      */
-    public String storeFile(MultipartFile file, String subDirectory) throws IOException {
+    public String storeFile(MultipartFile file) throws IOException {
         // Validate file
         if (file.isEmpty()) {
             throw new IOException("Cannot store empty file");
         }
 
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir, subDirectory);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
+        Path staging = Paths.get(stagingDir).toAbsolutePath();
+        Files.createDirectories(staging);
+        Path staged = Files.createTempFile(staging, "upload-", ".tmp");
+        try {
+            // A multipart upload spooled to disk by the container is moved rather than copied
+            file.transferTo(staged.toFile());
+            String hash = sha256Of(staged);
+            long size = Files.size(staged);
+
+            String relativePath;
+            ReentrantLock lock = lockFor(hash);
+            lock.lock();
+            try {
+                Optional<MediaBlob> existing = mediaBlobRepository.findById(hash);
+                if (existing.isPresent()) {
+                    mediaBlobRepository.retain(hash);
+                    return existing.get().getPath();
+                }
 
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFilename);
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
+                relativePath = "/" + MEDIA_DIRECTORY + "/" + hash.substring(0, 2) + "/" + hash + extensionOf(file);
+                blobStore.putFile(keyOf(relativePath), staged, file.getContentType());
+                mediaBlobRepository.save(new MediaBlob(hash, relativePath, file.getContentType(), size, 1, null));
+            } finally {
+                lock.unlock();
+            }
 
-        // Store the file
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            generateImageVariants(relativePath);
+            return relativePath;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
 
-        // Return the relative URL path
-        return "/" + subDirectory + "/" + uniqueFilename;
+    /**
+     * Record one more reference to an already stored file, e.g. a product family created with
+     * the image URL of another one. Paths outside the media store are ignored.
+     * @param relativePath The relative path of the stored file
+     */
+    public void retainFile(String relativePath) {
+        String hash = mediaHash(relativePath);
+        if (hash != null) {
+            mediaBlobRepository.retain(hash);
+        }
     }
 
     /**
-     * Delete a file using its relative path
+     * Drop one reference to a file using its relative path; the file and its variants are
+     * deleted once nothing references it any more. Files stored before the media store are
+     * deleted right away.
      * @param relativePath The relative path of the file to delete
      * @throws IOException If file deletion fails
      */
@@ -62,12 +229,66 @@ public class FileStorageService {
             return;
         }
 
-        // Remove leading slash if present
-        String cleanPath = relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
-        Path fileToDelete = Paths.get(uploadDir, cleanPath);
+        String hash = mediaHash(relativePath);
+        if (hash == null) {
+            deleteOrphanLater(relativePath, null);
+            return;
+        }
+
+        ReentrantLock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (mediaBlobRepository.release(hash) == 1 && mediaBlobRepository.deleteIfUnreferenced(hash) == 1) {
+                deleteOrphanLater(relativePath, hash);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The row is gone, so nothing points at the file any more; removing it and its variants
+    // from the store can happen after the request has returned
+    private void deleteOrphanLater(String relativePath, String hash) {
+        storageExecutor.execute(() -> {
+            ReentrantLock lock = hash != null ? lockFor(hash) : null;
+            if (lock != null) {
+                lock.lock();
+            }
+            try {
+                // Same content uploaded again in the meantime: the file is in use again
+                if (hash != null && mediaBlobRepository.existsById(hash)) {
+                    return;
+                }
+                blobStore.delete(keyOf(relativePath));
+                deleteImageVariants(relativePath);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not delete orphaned file {}", relativePath, e);
+            } finally {
+                if (lock != null) {
+                    lock.unlock();
+                }
+            }
+        });
+    }
 
-        if (Files.exists(fileToDelete)) {
-            Files.delete(fileToDelete);
+    /**
+     * Remove staged uploads left behind by a crash or a killed request
+     */
+    @Scheduled(fixedDelayString = "${storage.staging.sweep-ms:3600000}")
+    public void sweepStagingDirectory() {
+        Path staging = Paths.get(stagingDir);
+        if (!Files.isDirectory(staging)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        try (Stream<Path> files = Files.list(staging)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep staging directory {}", staging, e);
         }
     }
 
@@ -81,35 +302,98 @@ public class FileStorageService {
             return false;
         }
 
-        String cleanPath = relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
-        Path filePath = Paths.get(uploadDir, cleanPath);
-        return Files.exists(filePath);
+        try {
+            return blobStore.stat(keyOf(relativePath)) != null;
+        } catch (IOException e) {
+            return false;
+        }
     }
 
     /**
      * Get the full file path for a relative path
      * @param relativePath The relative path
-     * @return The full file system path
+     * @return The full file system path, or null if the blob store is not on the local file system
      */
     public Path getFullPath(String relativePath) {
         if (relativePath == null || relativePath.isEmpty()) {
             return null;
         }
 
-        String cleanPath = relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
-        return Paths.get(uploadDir, cleanPath);
+        return blobStore.localPath(keyOf(relativePath));
+    }
+
+    /**
+     * Get the blob store key of a relative path
+     * @param relativePath The relative path, e.g. /media/ab/ab12...ef.png
+     * @return The key, e.g. media/ab/ab12...ef.png
+     */
+    public static String keyOf(String relativePath) {
+        return relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
+    }
+
+    /**
+     * Get the hash of a media store path
+     * @param relativePath The relative path
+     * @return The SHA-256 hex string, or null if the path is not in the media store
+     */
+    public static String mediaHash(String relativePath) {
+        if (relativePath == null || !relativePath.startsWith("/" + MEDIA_DIRECTORY + "/")) {
+            return null;
+        }
+        String name = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        String hash = dot > 0 ? name.substring(0, dot) : name;
+        return hash.length() == 64 ? hash : null;
     }
 
     /**
-     * Get file extension from filename
-     * @param filename The filename
-     * @return The file extension including the dot, or empty string if no extension
+     * Get the lowercase file extension of an upload, from its name or else its content type
+     * @return The file extension including the dot, or empty string if unknown
      */
-    private String getFileExtension(String filename) {
-        if (filename == null || !filename.contains(".")) {
+    private String extensionOf(MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        if (filename != null && filename.contains(".")) {
+            String extension = filename.substring(filename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+            // Only short alphanumeric extensions end up in the path
+            if (extension.matches("\\.[a-z0-9]{1,5}")) {
+                return extension;
+            }
+        }
+        String contentType = file.getContentType();
+        if (contentType == null) {
             return "";
         }
-        return filename.substring(filename.lastIndexOf("."));
+        return switch (contentType) {
+            case "image/jpeg", "image/jpg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> "";
+        };
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return blobLocks[Math.floorMod(hash.hashCode(), blobLocks.length)];
+    }
+
+    private static String sha256Of(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -143,4 +427,190 @@ public class FileStorageService {
     public boolean isValidFileSize(MultipartFile file, long maxSizeInBytes) {
         return file != null && file.getSize() <= maxSizeInBytes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Generate the thumbnail and medium variants of a stored image in the background.
+     * Variants that already exist, e.g. for re-uploaded content, are kept.
+     * @param relativePath The relative URL path returned by storeFile
+     */
+    public void generateImageVariants(String relativePath) {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                createImageVariants(relativePath);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not generate image variants for {}", relativePath, e);
+            }
+        });
+    }
+
+    /**
+     * Find a variant of an image, generating the variants first if they do not exist yet.
+     * Stored content never changes, so a variant served once must be the one served forever.
+     * @param relativePath The relative path of the original image
+     * @param variant The wanted variant
+     * @return The relative path of the variant, or null if the original cannot be decoded as an image
+     */
+    public String findOrCreateVariant(String relativePath, ImageVariant variant) throws IOException {
+        String found = findVariant(relativePath, variant);
+        if (found == null) {
+            createImageVariants(relativePath);
+            found = findVariant(relativePath, variant);
+        }
+        return found;
+    }
+
+    private void createImageVariants(String relativePath) throws IOException {
+        String key = keyOf(relativePath);
+        if (blobStore.stat(key) == null) {
+            return;
+        }
+        if (findVariant(relativePath, ImageVariant.MEDIUM) != null && findVariant(relativePath, ImageVariant.THUMB) != null) {
+            return;
+        }
+        BufferedImage source;
+        Path local = blobStore.localPath(key);
+        if (local != null) {
+            source = readForVariants(local.toFile(), ImageVariant.MEDIUM.getMaxSize());
+        } else {
+            try (InputStream in = blobStore.open(key)) {
+                source = readForVariants(in, ImageVariant.MEDIUM.getMaxSize());
+            }
+        }
+        if (source == null) {
+            return; // Not a format ImageIO can decode
+        }
+        // Each variant is scaled from the previous, larger one
+        BufferedImage previous = source;
+        for (ImageVariant variant : List.of(ImageVariant.MEDIUM, ImageVariant.THUMB)) {
+            BufferedImage scaled = scale(previous, variant.getMaxSize());
+            writeVariant(scaled, relativePath, variant);
+            previous = scaled;
+        }
+    }
+
+    /**
+     * Find the best stored variant of an image
+     * @param relativePath The relative path of the original image
+     * @param variant The wanted variant
+     * @return The relative path of the variant, or null if it has not been generated (yet)
+     */
+    public String findVariant(String relativePath, ImageVariant variant) throws IOException {
+        for (String extension : VARIANT_EXTENSIONS) {
+            String candidate = variantPath(relativePath, variant, extension);
+            if (blobStore.stat(keyOf(candidate)) != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Delete every variant generated for an image
+     * @param relativePath The relative path of the original image
+     */
+    public void deleteImageVariants(String relativePath) throws IOException {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return;
+        }
+        for (ImageVariant variant : ImageVariant.values()) {
+            for (String extension : VARIANT_EXTENSIONS) {
+                blobStore.delete(keyOf(variantPath(relativePath, variant, extension)));
+            }
+        }
+    }
+
+    private static String variantPath(String relativePath, ImageVariant variant, String extension) {
+        int slash = relativePath.lastIndexOf('/');
+        int dot = relativePath.lastIndexOf('.');
+        String base = dot > slash ? relativePath.substring(0, dot) : relativePath;
+        return base + "-" + variant.getSuffix() + "." + extension;
+    }
+
+    // Decode with subsampling so a 5MB photo is never fully expanded in memory
+    private static BufferedImage readForVariants(Object source, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Keep at least twice the target resolution for a clean downscale
+                int subsampling = Math.max(1, largest / (targetSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxSize) {
+        int largest = Math.max(source.getWidth(), source.getHeight());
+        double ratio = Math.min(1.0, (double) maxSize / largest);
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Write a variant as WebP when an ImageIO WebP plugin is on the classpath, otherwise as a
+     * quality 80 JPEG (or PNG for images with transparency). The file is rendered in the staging
+     * directory and handed to the blob store whole, so it is never served half written.
+     */
+    private void writeVariant(BufferedImage image, String relativePath, ImageVariant variant) throws IOException {
+        String format;
+        if (ImageIO.getImageWritersByFormatName("webp").hasNext()) {
+            format = "webp";
+        } else {
+            format = image.getColorModel().hasAlpha() ? "png" : "jpg";
+        }
+
+        Path staging = Paths.get(stagingDir).toAbsolutePath();
+        Files.createDirectories(staging);
+        // Unique temp name: a request and the background task may render the same variant at once
+        Path temp = Files.createTempFile(staging, "variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (!format.equals("png") && param.canWriteCompressed()) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                        param.setCompressionType(param.getCompressionTypes()[0]);
+                    }
+                    param.setCompressionQuality(VARIANT_QUALITY);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            String contentType = format.equals("jpg") ? "image/jpeg" : "image/" + format;
+            blobStore.putFile(keyOf(variantPath(relativePath, variant, format)), temp, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
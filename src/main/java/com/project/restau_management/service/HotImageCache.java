@@ -0,0 +1,109 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.storage.BlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small least-recently-used cache of image bytes, bounded by total size, so the thumbnails a menu
+ * page asks for over and over are answered from memory. Entries are checked against the blob's
+ * modification time, so replaced content is never served stale.
+ */
+@Service
+public class HotImageCache {
+
+    @Value("${images.hot-cache.max-bytes:4194304}")
+    private long maxBytes;
+
+    @Value("${images.hot-cache.max-entry-bytes:65536}")
+    private long maxEntryBytes;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Entry(byte[] bytes, long lastModified) {
+    }
+
+    /**
+     * Check if a file is small enough to be cached
+     * @param size The file size in bytes
+     * @return true if it may be served through {@link #get}
+     */
+    public boolean accepts(long size) {
+        return size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    /**
+     * Get the content of a blob, reading and caching it on a miss
+     * @param key The blob store key
+     * @param lastModified The modification time the caller saw, in milliseconds
+     * @return The blob content
+     */
+    public byte[] get(String key, long lastModified) throws IOException {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.lastModified() == lastModified) {
+                hits.incrementAndGet();
+                return entry.bytes();
+            }
+        }
+        misses.incrementAndGet();
+        // Read outside the lock: a concurrent miss on the same file only costs a second read
+        byte[] bytes;
+        try (InputStream in = blobStore.open(key)) {
+            bytes = in.readAllBytes();
+        }
+        if (accepts(bytes.length)) {
+            put(key, new Entry(bytes, lastModified));
+        }
+        return bytes;
+    }
+
+    public synchronized void evict(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.bytes().length;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized long getSizeInBytes() {
+        return totalBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        totalBytes += entry.bytes().length - (previous != null ? previous.bytes().length : 0);
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().bytes().length;
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.project.restau_management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.restau_management.entity.IdempotencyRecord;
+import com.project.restau_management.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per client-supplied idempotency key and answers retries with the
+ * response of the first run. Responses are kept in the idempotency_keys table for
+ * idempotency.ttl, with the most recent ones also held in memory so a burst of retries after a
+ * reconnect costs no database round trip at all.
+ * <p>
+ * The key is claimed before the request runs and its response recorded after it committed. While
+ * the claim is younger than idempotency.lease, retries are told the request is in progress rather
+ * than being run a second time; after that the attempt is taken for dead (the process stopped
+ * between the two steps) and the next retry runs the request.
+ * <p>
+ * Keys that are already taken are detected by the row count of an INSERT IGNORE rather than a
+ * duplicate key error, since a retry is the normal case here and not worth an error in the log.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotency.lease:30s}")
+    private Duration lease;
+
+    @Value("${idempotency.memory.max-entries:10000}")
+    private long maxEntries;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<String, StoredResponse> recent;
+    private Counter replays;
+
+    private record StoredResponse(String requestHash, Integer statusCode, String body) {
+
+        boolean inProgress() {
+            return statusCode == null;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        recent = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+        replays = Counter.builder("idempotency.replays")
+                .description("Retried requests answered with the response of the first attempt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a request once for its idempotency key
+     * @param key The key sent by the client; without one the request simply runs
+     * @param request The request body, compared with the first request sent under the same key
+     * @param action Runs the request; server errors and exceptions release the key so it can be retried
+     * @return The response of the first run under this key, or of this one if it is the first
+     */
+    public ResponseEntity<?> execute(String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = fingerprint(request);
+        StoredResponse stored = recent.getIfPresent(key);
+        if (stored == null) {
+            stored = claimOrLoad(key, requestHash);
+        }
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(key);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            idempotencyRecordRepository.release(key);
+            return response;
+        }
+
+        String body = serialize(response.getBody());
+        idempotencyRecordRepository.complete(key, response.getStatusCode().value(), body);
+        recent.put(key, new StoredResponse(requestHash, response.getStatusCode().value(), body));
+        return response;
+    }
+
+    /**
+     * Remove keys older than idempotency.ttl; the in-memory copies expire on their own
+     */
+    @Scheduled(fixedDelayString = "${idempotency.sweep-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    // Drop the in-memory copies, as after a restart
+    void clearRecent() {
+        recent.invalidateAll();
+    }
+
+    // A new key costs the INSERT alone; only a retry the memory no longer holds reads the row
+    private StoredResponse claimOrLoad(String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.claim(key, requestHash, now) == 1) {
+            return null;
+        }
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElse(null);
+        if (record == null) {
+            // Released or purged since the INSERT: treat it as still in flight
+            return new StoredResponse(requestHash, null, null);
+        }
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getResponseBody());
+        if (!stored.inProgress()) {
+            recent.put(key, stored);
+        } else if (stored.requestHash().equals(requestHash)
+                && idempotencyRecordRepository.reclaim(key, now.minus(lease), now) == 1) {
+            log.warn("Idempotency key {} was unanswered since {}, running the retry", key, record.getClaimedAt());
+            return null;
+        }
+        return stored;
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+        }
+        if (stored.inProgress()) {
+            return error(HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed, retry shortly");
+        }
+        replays.increment();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.statusCode())
+                .header(REPLAYED_HEADER, "true");
+        return stored.body() != null
+                ? response.contentType(MediaType.APPLICATION_JSON).body(stored.body())
+                : response.build();
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not record response", e);
+        }
+    }
+
+    private static ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of(
+                "error", message,
+                "timestamp", LocalDateTime.now()
+        ));
+    }
+}
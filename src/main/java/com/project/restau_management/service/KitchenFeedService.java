@@ -0,0 +1,166 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.KitchenOrderDTO;
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.event.OrderChangedEvent;
+import com.project.restau_management.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes order changes to connected kitchen screens over Server-Sent Events.
+ * Each write is reloaded once and fanned out to every screen, so database load
+ * follows the write rate instead of the number of screens.
+ */
+@Service
+public class KitchenFeedService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${kitchen.feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final OrderStatus status;
+        // Deltas that arrive before the snapshot went out, sent right after it
+        private List<SseEmitter.SseEventBuilder> held = new ArrayList<>();
+
+        Subscriber(SseEmitter emitter, OrderStatus status) {
+            this.emitter = emitter;
+            this.status = status;
+        }
+
+        // Orders in the screen's status, and orders that just left it: only ongoing orders complete or cancel
+        boolean follows(Order order, OrderChangedEvent.Type type) {
+            return order.getStatus() == status || (status == OrderStatus.ON_GOING
+                    && (type == OrderChangedEvent.Type.COMPLETED || type == OrderChangedEvent.Type.CANCELLED));
+        }
+
+        synchronized void deliver(SseEmitter.SseEventBuilder event) {
+            if (held != null) {
+                held.add(event);
+            } else {
+                send(this, event);
+            }
+        }
+
+        // The snapshot goes first, then whatever changed while it was read, so a stale snapshot never overwrites a delta
+        synchronized void start(SseEmitter.SseEventBuilder snapshot) {
+            send(this, snapshot);
+            held.forEach(event -> send(this, event));
+            held = null;
+        }
+    }
+
+    // Single thread keeps deltas in commit order and off the request thread
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kitchen-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Register a kitchen screen and send it the current queue for the given status.
+     * The screen is registered before the queue is read, and the deltas it receives until the
+     * snapshot has been sent are held back and sent after it: a change committed meanwhile is
+     * delivered at worst twice, never lost, and never before the snapshot it is newer than.
+     * Runs in its own transaction so the connection goes back to the pool straight away
+     * instead of being pinned by open-in-view for the lifetime of the stream.
+     * @param status The order status the screen displays
+     * @return The emitter bound to the HTTP response
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(OrderStatus status) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, status);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        List<KitchenOrderDTO> queue = orderRepository.findKitchenQueueByStatus(status).stream()
+                .map(KitchenOrderDTO::fromEntity)
+                .toList();
+        subscriber.start(SseEmitter.event().name("snapshot").data(queue));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            dispatcher.execute(() -> broadcast(event));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${kitchen.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.deliver(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    // Before the web server's graceful shutdown, which would otherwise wait for every open stream
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private void broadcast(OrderChangedEvent event) {
+        Optional<Order> order = orderRepository.findWithItemsByOrderId(event.orderId());
+
+        // An order that no longer exists is announced as deleted so every screen drops it
+        Map<String, Object> delta = order
+                .<Map<String, Object>>map(o -> Map.of("type", event.type(), "order", KitchenOrderDTO.fromEntity(o)))
+                .orElseGet(() -> Map.of("type", OrderChangedEvent.Type.DELETED, "orderId", event.orderId()));
+
+        for (Subscriber subscriber : subscribers) {
+            if (order.isEmpty() || subscriber.follows(order.get(), event.type())) {
+                subscriber.deliver(SseEmitter.event().name("order").data(delta));
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.repository.CategoryRepository;
+import com.project.restau_management.repository.ProductFamilyRepository;
+import com.project.restau_management.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class MenuCatalogService {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductFamilyRepository productFamilyRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // Seeded from the clock so a restart never hands out a version a client already cached
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    private volatile MenuSnapshot snapshot;
+
+    // Not synchronized: a virtual thread blocking on the database inside a monitor would pin its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /**
+     * Get the current menu, loading it on first use
+     * @return The current immutable snapshot
+     */
+    public MenuSnapshot snapshot() {
+        MenuSnapshot current = snapshot;
+        if (current == null) {
+            loadLock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reload the menu from the database and swap it in atomically.
+     * Called by the product, family and category services after every write.
+     */
+    public void refresh() {
+        loadLock.lock();
+        try {
+            snapshot = load();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private MenuSnapshot load() {
+        return new MenuSnapshot(versions.incrementAndGet(),
+                productRepository.findAll(),
+                productFamilyRepository.findAll(),
+                categoryRepository.findAll());
+    }
+}
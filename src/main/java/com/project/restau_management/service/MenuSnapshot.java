@@ -0,0 +1,109 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.ProductFamily;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the whole menu at a given version.
+ * Instances are never modified after construction; writers build a new snapshot and swap it in.
+ */
+public final class MenuSnapshot {
+
+    private final long version;
+    private final List<Product> products;
+    private final List<ProductFamily> families;
+    private final List<Category> categories;
+    private final Map<Integer, Product> productsById;
+    private final Map<Integer, List<Product>> productsByCategory;
+    private final Map<String, List<Product>> productsByFamily;
+    private final Map<String, ProductFamily> familiesById;
+    private final Map<Integer, List<ProductFamily>> familiesByCategory;
+    private final Map<Integer, Category> categoriesById;
+    private final ProductSearchIndex searchIndex;
+
+    public MenuSnapshot(long version, List<Product> products, List<ProductFamily> families, List<Category> categories) {
+        this.version = version;
+        this.products = List.copyOf(products);
+        this.families = List.copyOf(families);
+        this.categories = List.copyOf(categories);
+
+        this.productsById = this.products.stream()
+                .collect(Collectors.toUnmodifiableMap(Product::getProductId, Function.identity()));
+        this.productsByCategory = group(this.products, p -> p.getCategory() != null ? p.getCategory().getCategoryId() : null);
+        this.productsByFamily = group(this.products, p -> p.getProductFamily() != null ? p.getProductFamily().getProductFamilyId() : null);
+        this.familiesById = this.families.stream()
+                .collect(Collectors.toUnmodifiableMap(ProductFamily::getProductFamilyId, Function.identity()));
+        this.familiesByCategory = group(this.families, f -> f.getCategory() != null ? f.getCategory().getCategoryId() : null);
+        this.categoriesById = this.categories.stream()
+                .collect(Collectors.toUnmodifiableMap(Category::getCategoryId, Function.identity()));
+        this.searchIndex = ProductSearchIndex.build(this.products);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The strong ETag clients send back in If-None-Match
+     */
+    public String getETag() {
+        return "\"menu-" + version + "\"";
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public Optional<Product> getProduct(int productId) {
+        return Optional.ofNullable(productsById.get(productId));
+    }
+
+    public List<Product> getProductsByCategory(int categoryId) {
+        return productsByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    public List<Product> getProductsByFamily(String familyId) {
+        return productsByFamily.getOrDefault(familyId, List.of());
+    }
+
+    public List<Product> searchProducts(String query, int page, int size) {
+        return searchIndex.search(query, page, size);
+    }
+
+    public List<ProductFamily> getFamilies() {
+        return families;
+    }
+
+    public Optional<ProductFamily> getFamily(String familyId) {
+        return Optional.ofNullable(familiesById.get(familyId));
+    }
+
+    public List<ProductFamily> getFamiliesByCategory(int categoryId) {
+        return familiesByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public Optional<Category> getCategory(int categoryId) {
+        return Optional.ofNullable(categoriesById.get(categoryId));
+    }
+
+    private static <T, K> Map<K, List<T>> group(List<T> values, Function<T, K> key) {
+        Map<K, List<T>> grouped = new HashMap<>();
+        for (T value : values) {
+            K k = key.apply(value);
+            if (k != null) {
+                grouped.computeIfAbsent(k, unused -> new ArrayList<>()).add(value);
+            }
+        }
+        grouped.replaceAll((k, list) -> List.copyOf(list));
+        return Collections.unmodifiableMap(grouped);
+    }
+}
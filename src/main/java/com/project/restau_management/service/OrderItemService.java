@@ -1,37 +1,66 @@
 package com.project.restau_management.service;
 
+import com.project.restau_management.dto.PageResponse;
+import com.project.restau_management.entity.Money;
 import com.project.restau_management.entity.Order;
 import com.project.restau_management.entity.OrderItem;
 import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.ProductSalesRollup;
 import com.project.restau_management.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class OrderItemService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderItemService.class);
+
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private RollupService rollupService;
+
     public List<OrderItem> getAllOrderItems() {
         return orderItemRepository.findAll();
     }
 
+    public PageResponse<OrderItem> getOrderItemsPage(String after, Integer limit) {
+        int size = PageResponse.limit(limit);
+        List<OrderItem> rows = orderItemRepository.findByOrderItemIdGreaterThanOrderByOrderItemIdAsc(
+                PageResponse.afterId(after), PageRequest.of(0, size + 1));
+        return PageResponse.of(rows, size, i -> String.valueOf(i.getOrderItemId()));
+    }
+
     public Optional<OrderItem> getOrderItemById(int id) {
         return orderItemRepository.findById(id);
     }
 
+    @Transactional
     public OrderItem saveOrderItem(OrderItem orderItem) {
-        orderItem.setSubtotal(orderItem.getUnitPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
-        return orderItemRepository.save(orderItem);
+        orderItem.setSubtotal(orderItem.getUnitPrice().times(orderItem.getQuantity()));
+        if (orderItem.getOrderItemId() != 0) {
+            orderItemRepository.findById(orderItem.getOrderItemId())
+                    .ifPresent(previous -> rollupService.recordItems(List.of(previous), -1));
+        }
+        OrderItem saved = orderItemRepository.save(orderItem);
+        rollupService.recordItems(List.of(saved), 1);
+        return saved;
     }
 
+    @Transactional
     public void deleteOrderItem(int id) {
-        orderItemRepository.deleteById(id);
+        orderItemRepository.findById(id).ifPresent(item -> {
+            rollupService.recordItems(List.of(item), -1);
+            orderItemRepository.delete(item);
+        });
     }
 
     public List<OrderItem> getOrderItemsByOrder(Order order) {
@@ -51,20 +80,26 @@ public class OrderItemService {
     }
 
     public Long getTotalQuantityByProduct(int productId) {
-        return orderItemRepository.getTotalQuantityByProductId(productId);
+        return rollupService.getProductSales(productId)
+                .map(ProductSalesRollup::getQuantitySold)
+                .orElse(null);
     }
 
-    public OrderItem updateOrderItem(Long id, Integer quantity, BigDecimal unitPrice) {
-        System.out.println("🛠 Updating OrderItem in DB → ID: " + id + ", quantity: " + quantity);
+    @Transactional
+    public OrderItem updateOrderItem(Long id, Integer quantity, Money unitPrice) {
+        log.debug("Updating order item {}: quantity {}", id, quantity);
 
         OrderItem item = orderItemRepository.findById(Math.toIntExact(id))
                 .orElseThrow(() -> new RuntimeException("Order item not found: " + id));
 
+        rollupService.recordItems(List.of(item), -1);
         item.setQuantity(quantity);
         item.setUnitPrice(unitPrice);
-        item.setSubtotal(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+        item.setSubtotal(unitPrice.times(quantity));
 
-        return orderItemRepository.save(item);
+        OrderItem saved = orderItemRepository.save(item);
+        rollupService.recordItems(List.of(saved), 1);
+        return saved;
     }
 
 
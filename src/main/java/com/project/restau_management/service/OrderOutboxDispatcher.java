@@ -0,0 +1,218 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.entity.OrderOutboxEntry;
+import com.project.restau_management.event.OrderOutboxHandler;
+import com.project.restau_management.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transactional outbox for the side effects of order changes. The request writes an order_outbox
+ * row next to the order; once it commits, the row id goes onto a bounded queue that consumer
+ * threads drain in batches, running every {@link OrderOutboxHandler} once per batch and deleting
+ * the rows in one statement.
+ * <p>
+ * Delivery is at least once. Ids that do not fit in the queue, rows left behind by a restart and
+ * failed rows whose backoff has passed are picked up again by {@link #enqueueDue}.
+ */
+@Service
+public class OrderOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxDispatcher.class);
+
+    @Value("${outbox.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${outbox.consumers:1}")
+    private int consumers;
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.backoff-ms:1000}")
+    private long backoffMs;
+
+    @Value("${outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+    @Autowired
+    private List<OrderOutboxHandler> handlers;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<Long> queue;
+    // Ids on the queue or being handled, so the sweep does not hand the same row over twice
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private ExecutorService workers;
+
+    private Counter handled;
+    private Counter failed;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(consumers, r -> {
+            Thread thread = new Thread(r, "order-outbox-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < consumers; i++) {
+            workers.execute(this::consume);
+        }
+
+        Gauge.builder("outbox.pending", pending, Set::size)
+                .description("Outbox entries queued or being handled")
+                .register(meterRegistry);
+        handled = Counter.builder("outbox.entries").tag("result", "handled").register(meterRegistry);
+        failed = Counter.builder("outbox.entries").tag("result", "failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Entries in flight stay in the table and are handled again after the restart
+        workers.shutdownNow();
+    }
+
+    /**
+     * Record side effects of an order change. Joins the caller's transaction, and the entry is
+     * only handed to the consumers once that transaction has committed.
+     * @param entry The change to carry out
+     */
+    public void append(OrderOutboxEntry entry) {
+        long id = orderOutboxRepository.save(entry).getOutboxId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(id);
+                }
+            });
+        } else {
+            enqueue(id);
+        }
+    }
+
+    /**
+     * Queue the entries that are due: never handed over, dropped by a full queue, or waiting for a retry
+     */
+    @Scheduled(fixedDelayString = "${outbox.sweep-ms:5000}")
+    public void enqueueDue() {
+        int room = queue.remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        orderOutboxRepository.findDueIds(LocalDateTime.now(), maxAttempts, PageRequest.of(0, room))
+                .forEach(this::enqueue);
+    }
+
+    /**
+     * @return Entries queued or being handled by this instance
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void enqueue(long id) {
+        // A full queue leaves the entry to the next sweep instead of blocking the request
+        if (pending.add(id) && !queue.offer(id)) {
+            pending.remove(id);
+        }
+    }
+
+    private void consume() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // The rows are still there: the sweep retries them
+                log.warn("Could not dispatch outbox entries {}", batch, e);
+            } finally {
+                batch.forEach(pending::remove);
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Long> ids) {
+        List<OrderOutboxEntry> entries = orderOutboxRepository.findAllById(ids);
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            handle(entries);
+        } catch (RuntimeException e) {
+            if (entries.size() == 1) {
+                reschedule(entries.get(0), e);
+                return;
+            }
+            // One bad entry must not hold back the rest of the batch
+            for (OrderOutboxEntry entry : entries) {
+                try {
+                    handle(List.of(entry));
+                } catch (RuntimeException entryFailure) {
+                    reschedule(entry, entryFailure);
+                }
+            }
+        }
+    }
+
+    private void handle(List<OrderOutboxEntry> entries) {
+        for (OrderOutboxHandler handler : handlers) {
+            handler.handle(entries);
+        }
+        orderOutboxRepository.deleteAllByIdInBatch(entries.stream().map(OrderOutboxEntry::getOutboxId).toList());
+        handled.increment(entries.size());
+    }
+
+    private void reschedule(OrderOutboxEntry entry, RuntimeException e) {
+        failed.increment();
+        int attempts = entry.getAttempts() + 1;
+        // Doubles with every attempt, up to outbox.max-backoff-ms
+        long delayMs = Math.min(maxBackoffMs, backoffMs << Math.min(attempts - 1, 20));
+        String error = String.valueOf(e.getMessage());
+        orderOutboxRepository.reschedule(entry.getOutboxId(), LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS),
+                error.length() > 500 ? error.substring(0, 500) : error);
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on outbox entry {} for order {} after {} attempts",
+                    entry.getOutboxId(), entry.getOrderId(), attempts, e);
+        } else {
+            log.warn("Outbox entry {} for order {} failed, retrying in {} ms",
+                    entry.getOutboxId(), entry.getOrderId(), delayMs, e);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.*;
+import com.project.restau_management.event.OrderChangedEvent;
+import com.project.restau_management.repository.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderPlacementService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private TableRepository tableRepository;
+    @Autowired
+    private TableOccupancyService tableOccupancyService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private RollupService rollupService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter ordersPlaced;
+    private DistributionSummary itemsPerOrder;
+
+    @PostConstruct
+    void registerMetrics() {
+        ordersPlaced = Counter.builder("orders.placed")
+                .description("Orders placed through the POS")
+                .register(meterRegistry);
+        itemsPerOrder = DistributionSummary.builder("orders.items")
+                .description("Lines per placed order")
+                .baseUnit("items")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Place a new order with all its lines in one transaction.
+     * Products are resolved with a single lookup, the total is computed before the order
+     * is inserted, and the lines are written as one JDBC batch.
+     * @param orderDTO The order submitted by the POS
+     * @return The persisted order
+     */
+    @Transactional
+    public Order placeOrder(OrderRequestDTO orderDTO) {
+        User user = userRepository.findById(Math.toIntExact(orderDTO.getUserId()))
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + orderDTO.getUserId()));
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(orderDTO.getStatus() != null ? orderDTO.getStatus() : OrderStatus.ON_GOING);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setDescription(orderDTO.getDescription());
+
+        if (orderDTO.getClientId() != null) {
+            Client client = clientRepository.findById(Math.toIntExact(orderDTO.getClientId()))
+                    .orElseThrow(() -> new RuntimeException("Client not found with id: " + orderDTO.getClientId()));
+            order.setClient(client);
+        }
+
+        List<OrderItemDTO> itemDTOs = orderDTO.getItems() != null ? orderDTO.getItems() : List.of();
+        Map<Integer, Product> products = loadProducts(itemDTOs);
+
+        List<OrderItem> items = new ArrayList<>(itemDTOs.size());
+        Money total = Money.ZERO;
+
+        for (OrderItemDTO itemDTO : itemDTOs) {
+            OrderItem item = buildItem(itemDTO, products);
+            item.setOrder(order);
+            total = total.plus(item.getSubtotal());
+            items.add(item);
+        }
+
+        // Seat the table last so its row lock is held for as short a time as possible
+        if (orderDTO.getTableId() != null) {
+            order.setTable(claimTable(Math.toIntExact(orderDTO.getTableId())));
+        }
+
+        // Total is known up front, so the order row is written exactly once
+        order.setTotalAmount(total);
+        Order savedOrder = orderRepository.saveAndFlush(order);
+
+        orderItemRepository.batchInsert(items);
+        rollupService.recordItems(items, 1);
+        eventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getOrderId(), OrderChangedEvent.Type.CREATED));
+        ordersPlaced.increment();
+        itemsPerOrder.record(items.size());
+        return savedOrder;
+    }
+
+    /**
+     * Apply an edited order from the POS as a diff against its persisted lines.
+     * Lines are matched by orderItemId, or by product for clients that send no ids, and only
+     * what differs is written: changed lines in one batched UPDATE, removed lines in a single
+     * DELETE and added lines in one JDBC batch.
+     * @param orderId The order to edit
+     * @param orderDTO The new state of the order; null items leaves the lines as they are
+     * A completed or cancelled status closes the order through {@link OrderService}, so its table is freed.
+     * @return The updated order, or null if there is no such order
+     * @throws ObjectOptimisticLockingFailureException if the order changed since the POS read it
+     * @throws IllegalStateException if the order may not move to the requested status
+     */
+    @Transactional
+    public Order updateOrder(int orderId, OrderRequestDTO orderDTO) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null) {
+            return null;
+        }
+        if (orderDTO.getVersion() != null && orderDTO.getVersion() != order.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, orderId);
+        }
+
+        if (orderDTO.getDescription() != null) order.setDescription(orderDTO.getDescription());
+        OrderStatus closing = null;
+        if (orderDTO.getStatus() != null && orderDTO.getStatus().isFinal() && orderDTO.getStatus() != order.getStatus()) {
+            closing = order.getStatus().transitionTo(orderDTO.getStatus());
+        } else if (orderDTO.getStatus() != null) {
+            order.setStatus(orderDTO.getStatus());
+        }
+
+        List<OrderItem> removed = List.of();
+        List<OrderItem> added = new ArrayList<>();
+        List<OrderItem> before = new ArrayList<>();
+        List<OrderItem> after = new ArrayList<>();
+
+        if (orderDTO.getItems() != null) {
+            Map<Integer, Product> products = loadProducts(orderDTO.getItems());
+            Map<Integer, OrderItem> remaining = new LinkedHashMap<>();
+            orderItemRepository.findByOrder(order).forEach(item -> remaining.put(item.getOrderItemId(), item));
+            Money total = Money.ZERO;
+
+            List<OrderItemDTO> unmatched = new ArrayList<>();
+            for (OrderItemDTO itemDTO : orderDTO.getItems()) {
+                OrderItem current = itemDTO.getOrderItemId() != null
+                        ? remaining.remove(Math.toIntExact(itemDTO.getOrderItemId())) : null;
+                if (current != null) {
+                    OrderItem target = keepOmitted(itemDTO, current, buildItem(itemDTO, products));
+                    total = total.plus(applyLine(current, target, before, after));
+                } else {
+                    unmatched.add(itemDTO);
+                }
+            }
+            // Clients that resend the whole list without ids: a line for the same product is an edit
+            for (OrderItemDTO itemDTO : unmatched) {
+                OrderItem target = buildItem(itemDTO, products);
+                OrderItem current = remaining.values().stream()
+                        .filter(item -> Objects.equals(productId(item), productId(target)))
+                        .findFirst()
+                        .orElse(null);
+                if (current != null) {
+                    remaining.remove(current.getOrderItemId());
+                    total = total.plus(applyLine(current, target, before, after));
+                } else {
+                    target.setOrder(order);
+                    added.add(target);
+                    total = total.plus(target.getSubtotal());
+                }
+            }
+
+            removed = new ArrayList<>(remaining.values());
+            if (!removed.isEmpty()) {
+                orderItemRepository.deleteAllByIdInBatch(removed.stream().map(OrderItem::getOrderItemId).toList());
+            }
+            order.setTotalAmount(total);
+        }
+
+        order.setUpdatedAt(LocalDateTime.now());
+        // Writes the changed lines and bumps the version; a concurrent edit makes this throw
+        Order savedOrder = orderRepository.saveAndFlush(order);
+
+        orderItemRepository.batchInsert(added);
+        rollupService.recordItemChanges(concat(removed, before), concat(after, added));
+        eventPublisher.publishEvent(new OrderChangedEvent(savedOrder.getOrderId(), OrderChangedEvent.Type.UPDATED));
+        if (closing == OrderStatus.COMPLETED) {
+            return orderService.completeOrder(orderId);
+        }
+        if (closing == OrderStatus.CANCELLED) {
+            return orderService.cancelOrder(orderId);
+        }
+        return savedOrder;
+    }
+
+    private RestaurantTable claimTable(int tableId) {
+        if (!tableOccupancyService.claim(tableId)) {
+            // Only the losing path pays for a read, to report why
+            RestaurantTable table = tableRepository.findById(tableId)
+                    .orElseThrow(() -> new RuntimeException("Table not found with id: " + tableId));
+            throw new RuntimeException("Table " + table.getTableNumber() + " is already occupied");
+        }
+        return tableRepository.getReferenceById(tableId);
+    }
+
+    /**
+     * Copy the target's values onto a persisted line if any differ, remembering the old values
+     * for the rollups. Managed lines are only touched when they change, so unchanged ones are not written.
+     * @return The line's subtotal after the update
+     */
+    private Money applyLine(OrderItem current, OrderItem target, List<OrderItem> before, List<OrderItem> after) {
+        boolean unchanged = current.getQuantity() == target.getQuantity()
+                && current.getUnitPrice().equals(target.getUnitPrice())
+                && Objects.equals(current.getDetails(), target.getDetails())
+                && Objects.equals(productId(current), productId(target));
+        if (unchanged) {
+            return current.getSubtotal();
+        }
+
+        OrderItem previous = new OrderItem();
+        previous.setProduct(current.getProduct());
+        previous.setQuantity(current.getQuantity());
+        previous.setSubtotal(current.getSubtotal());
+        before.add(previous);
+
+        current.setProduct(target.getProduct());
+        current.setQuantity(target.getQuantity());
+        current.setUnitPrice(target.getUnitPrice());
+        current.setSubtotal(target.getSubtotal());
+        current.setDetails(target.getDetails());
+        after.add(current);
+        return current.getSubtotal();
+    }
+
+    /**
+     * A line edited by id keeps whatever the caller left out: the POS sends only
+     * {orderItemId, quantity} for a quantity change, which must not clear the product or price.
+     */
+    private static OrderItem keepOmitted(OrderItemDTO itemDTO, OrderItem current, OrderItem target) {
+        if (itemDTO.getProductId() == null) {
+            target.setProduct(current.getProduct());
+            if (itemDTO.getUnitPrice() == null && itemDTO.getPrice() == null) {
+                target.setUnitPrice(current.getUnitPrice());
+            }
+        }
+        if (itemDTO.getDetails() == null) {
+            target.setDetails(current.getDetails());
+        }
+        target.setSubtotal(target.getUnitPrice().times(target.getQuantity()));
+        return target;
+    }
+
+    private static Integer productId(OrderItem item) {
+        return item.getProduct() != null ? item.getProduct().getProductId() : null;
+    }
+
+    private static List<OrderItem> concat(List<OrderItem> first, List<OrderItem> second) {
+        List<OrderItem> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private Map<Integer, Product> loadProducts(List<OrderItemDTO> itemDTOs) {
+        Set<Integer> productIds = itemDTOs.stream()
+                .map(OrderItemDTO::getProductId)
+                .filter(id -> id != null && id > 0)
+                .map(Math::toIntExact)
+                .collect(Collectors.toSet());
+
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Integer, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        for (Integer productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new RuntimeException("Product not found with id: " + productId);
+            }
+        }
+        return products;
+    }
+
+    private OrderItem buildItem(OrderItemDTO itemDTO, Map<Integer, Product> products) {
+        OrderItem item = new OrderItem();
+        item.setQuantity(itemDTO.getQuantity());
+        item.setDetails(itemDTO.getDetails());
+
+        Money unitPrice = itemDTO.getUnitPrice() != null ? itemDTO.getUnitPrice() :
+                (itemDTO.getPrice() != null ? itemDTO.getPrice() : Money.ZERO);
+
+        if (itemDTO.getProductId() != null && itemDTO.getProductId() > 0) {
+            Product product = products.get(Math.toIntExact(itemDTO.getProductId()));
+            item.setProduct(product);
+
+            // Fall back to the catalog price when the POS did not send a usable one
+            if (unitPrice.signum() <= 0 && product.getPrice() != null) {
+                unitPrice = Money.of(product.getPrice());
+            }
+        }
+
+        if (unitPrice.signum() < 0) {
+            unitPrice = Money.ZERO;
+        }
+
+        item.setUnitPrice(unitPrice);
+        item.setSubtotal(unitPrice.times(itemDTO.getQuantity()));
+        return item;
+    }
+}
@@ -1,24 +1,41 @@
 package com.project.restau_management.service;
 
+import com.project.restau_management.dto.PageResponse;
 import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderSummaryDTO;
 import com.project.restau_management.entity.Client;
+import com.project.restau_management.entity.Money;
 import com.project.restau_management.entity.Order;
 import com.project.restau_management.entity.OrderItem;
+import com.project.restau_management.entity.OrderOutboxEntry;
+import com.project.restau_management.entity.OrderStatus;
 import com.project.restau_management.entity.User;
+import com.project.restau_management.event.OrderChangedEvent;
 import com.project.restau_management.repository.OrderItemRepository;
 import com.project.restau_management.repository.OrderRepository;
 import jakarta.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
     @Autowired
     private OrderRepository orderRepository;
     @Autowired
@@ -26,25 +43,45 @@ public class OrderService {
 
 
     @Autowired
-    private TableService tableService;
+    private OrderOutboxDispatcher orderOutboxDispatcher;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
 
+    public PageResponse<OrderSummaryDTO> getOrdersPage(String after, Integer limit) {
+        int size = PageResponse.limit(limit);
+        List<OrderSummaryDTO> rows = orderRepository.findSummaryPageAfter(
+                PageResponse.afterId(after), PageRequest.of(0, size + 1));
+        return withLines(PageResponse.of(rows, size, o -> String.valueOf(o.getOrderId())));
+    }
+
     public Optional<Order> getOrderById(int id) {
         return orderRepository.findById(id);
     }
 
     public Order saveOrder(Order order) {
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(saved.getOrderId(), OrderChangedEvent.Type.UPDATED));
+        return saved;
     }
 
+    @Transactional
     public void deleteOrder(int id) {
-        orderRepository.deleteById(id);
+        orderRepository.findWithItemsByOrderId(id).ifPresent(order -> {
+            rollupService.recordItems(order.getItems(), -1);
+            orderRepository.delete(order);
+        });
+        eventPublisher.publishEvent(new OrderChangedEvent(id, OrderChangedEvent.Type.DELETED));
     }
 
-    public List<Order> getOrdersByStatus(String status) {
+    public List<Order> getOrdersByStatus(OrderStatus status) {
         return orderRepository.findByStatusWithItems(status);
     }
 
@@ -64,7 +101,7 @@ public class OrderService {
         return orderRepository.findByTable(table);
     }
 
-    public List<Order> getOrdersByTableIdAndStatus(int tableId, String status) {
+    public List<Order> getOrdersByTableIdAndStatus(int tableId, OrderStatus status) {
         return orderRepository.findByTableIdAndStatus(tableId, status);
     }
 
@@ -78,76 +115,176 @@ public class OrderService {
         return orderRepository.findByCreatedAtBetween(startOfDay, endOfDay);
     }
 
-    public Order completeOrder(int orderId) {
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            order.get().setStatus("COMPLETED");
-            order.get().setUpdatedAt(LocalDateTime.now());
+    public List<OrderSummaryDTO> getOrderSummariesByStatus(OrderStatus status) {
+        return withLines(orderRepository.findSummariesByStatus(status));
+    }
 
-            // Free up the table
-            if (order.get().getTable() != null) {
-                tableService.setTableAvailability(order.get().getTable().getTableId(), true);
-            }
+    public List<OrderSummaryDTO> getOrderSummariesByUserId(int userId) {
+        return withLines(orderRepository.findSummariesByUserId(userId));
+    }
+
+    public List<OrderSummaryDTO> getTodaysOrderSummaries() {
+        LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
+        return withLines(orderRepository.findSummariesCreatedBetween(startOfDay, startOfDay.plusDays(1)));
+    }
 
-            return orderRepository.save(order.get());
+    public Optional<OrderSummaryDTO> getOrderSummary(int orderId) {
+        return orderRepository.findSummaryById(orderId).map(summary -> withLines(List.of(summary)).get(0));
+    }
+
+    private PageResponse<OrderSummaryDTO> withLines(PageResponse<OrderSummaryDTO> page) {
+        withLines(page.getItems());
+        return page;
+    }
+
+    // Attach the lines of all the given orders with a single query
+    private List<OrderSummaryDTO> withLines(List<OrderSummaryDTO> orders) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        Map<Integer, OrderSummaryDTO> byId = orders.stream()
+                .collect(Collectors.toMap(OrderSummaryDTO::getOrderId, Function.identity()));
+        for (OrderSummaryDTO.Line line : orderItemRepository.findSummaryLinesByOrderIds(byId.keySet())) {
+            byId.get(line.getOrderId()).getItems().add(line);
         }
-        return null;
+        return orders;
     }
 
+    /**
+     * Mark an order as completed. Only the order row and its outbox entry are written here;
+     * freeing the table and the other side effects run after commit, see {@link OrderOutboxDispatcher}.
+     * @param orderId The order to complete
+     * @return The completed order, or null if there is no such order
+     * @throws IllegalStateException if the order can no longer be completed
+     */
+    @Transactional
+    public Order completeOrder(int orderId) {
+        return close(orderId, OrderStatus.COMPLETED, OrderChangedEvent.Type.COMPLETED);
+    }
+
+    /**
+     * Mark an order as cancelled, like {@link #completeOrder}
+     */
+    @Transactional
     public Order cancelOrder(int orderId) {
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            order.get().setStatus("CANCELLED");
-            order.get().setUpdatedAt(LocalDateTime.now());
+        return close(orderId, OrderStatus.CANCELLED, OrderChangedEvent.Type.CANCELLED);
+    }
 
-            // Free up the table
-            if (order.get().getTable() != null) {
-                tableService.setTableAvailability(order.get().getTable().getTableId(), true);
-            }
+    /**
+     * Charge an order to a client's subscription: the order is assigned to the client and completed
+     * @param orderId The order to charge
+     * @param client The client paying for it
+     * @return The completed order, or null if there is no such order
+     * @throws IllegalStateException if the order can no longer be completed
+     */
+    @Transactional
+    public Order completeForClient(int orderId, Client client) {
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty()) {
+            return null;
+        }
+        order.get().setClient(client);
+        return close(orderId, OrderStatus.COMPLETED, OrderChangedEvent.Type.COMPLETED);
+    }
 
-            return orderRepository.save(order.get());
+    private Order close(int orderId, OrderStatus status, OrderChangedEvent.Type type) {
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty()) {
+            return null;
         }
-        return null;
+        OrderStatus previous = order.get().getStatus();
+        order.get().setStatus(status);
+        order.get().setUpdatedAt(LocalDateTime.now());
+        Order saved = orderRepository.save(order.get());
+        if (previous == status) {
+            // Closed before: its side effects were recorded then
+            return saved;
+        }
+
+        Integer tableId = saved.getTable() != null ? saved.getTable().getTableId() : null;
+        orderOutboxDispatcher.append(new OrderOutboxEntry(orderId, type, tableId));
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId, type));
+        return saved;
     }
 
+    /**
+     * Change the quantities of some lines of an order in one transaction.
+     * All lines of the order are read in one query, the changed ones are flushed as a single
+     * batched UPDATE, and the total is recomputed from every line, not only the edited ones.
+     * @param orderId The order the lines belong to
+     * @param updatedItems orderItemId and new quantity of each line to change
+     * @return The updated order, or null if there is no such order
+     * @throws IllegalArgumentException if a line is not on the order
+     */
+    @Transactional
     public Order updateOrderQuantities(Long orderId, List<OrderItemDTO> updatedItems) {
-        System.out.println("🔁 Updating order ID: " + orderId);
-        System.out.println("📦 Payload: " + updatedItems);
+        log.debug("Updating quantities of order {}: {}", orderId, updatedItems);
 
-        Optional<Order> optionalOrder = orderRepository.findById(orderId.intValue());
-        if (optionalOrder.isEmpty()) {
-            throw new RuntimeException("❌ Order not found with ID: " + orderId);
+        Order order = orderRepository.findById(orderId.intValue()).orElse(null);
+        if (order == null) {
+            return null;
         }
+        Map<Integer, OrderItem> lines = orderItemRepository.findWithProductsByOrderId(order.getOrderId()).stream()
+                .collect(Collectors.toMap(OrderItem::getOrderItemId, Function.identity()));
 
-        Order order = optionalOrder.get();
-        BigDecimal newTotal = BigDecimal.ZERO;
-
+        List<OrderItem> before = new ArrayList<>();
+        List<OrderItem> after = new ArrayList<>();
         for (OrderItemDTO dto : updatedItems) {
-            System.out.println("➡️ Item: " + dto.getOrderItemId() + " Quantity: " + dto.getQuantity());
+            OrderItem item = dto.getOrderItemId() != null ? lines.get(Math.toIntExact(dto.getOrderItemId())) : null;
+            if (item == null) {
+                throw new IllegalArgumentException("Order item " + dto.getOrderItemId() + " is not on order " + orderId);
+            }
+            if (item.getQuantity() == dto.getQuantity()) {
+                continue;
+            }
 
-            OrderItem item = orderItemRepository.findById(Math.toIntExact(dto.getOrderItemId()))
-                    .orElseThrow(() -> new RuntimeException("❌ Order item not found: " + dto.getOrderItemId()));
+            OrderItem previous = new OrderItem();
+            previous.setProduct(item.getProduct());
+            previous.setQuantity(item.getQuantity());
+            previous.setSubtotal(item.getSubtotal());
+            before.add(previous);
 
             item.setQuantity(dto.getQuantity());
-            BigDecimal subtotal = item.getUnitPrice().multiply(BigDecimal.valueOf(dto.getQuantity()));
-            item.setSubtotal(subtotal);
-
-            newTotal = newTotal.add(subtotal);
-            orderItemRepository.save(item);
+            item.setSubtotal(item.getUnitPrice().times(dto.getQuantity()));
+            after.add(item);
         }
 
-        order.setTotalAmount(newTotal);
+        order.setTotalAmount(lines.values().stream()
+                .map(OrderItem::getSubtotal)
+                .reduce(Money.ZERO, Money::plus));
         order.setUpdatedAt(LocalDateTime.now());
-        return orderRepository.save(order);
+        Order saved = orderRepository.saveAndFlush(order);
+        rollupService.recordItemChanges(before, after);
+        eventPublisher.publishEvent(new OrderChangedEvent(saved.getOrderId(), OrderChangedEvent.Type.UPDATED));
+        return saved;
     }
 
-    public List<Order> getOrdersByClientAndDateRange(int clientId, String from, String to) {
-        // If no range provided, return all for client
-        if ((from == null || from.isBlank()) || (to == null || to.isBlank())) {
-            return orderRepository.findByClient_ClientIdOrderByCreatedAtDesc(clientId);
+    /**
+     * @throws java.time.format.DateTimeParseException if from or to is not an ISO date
+     */
+    public PageResponse<OrderSummaryDTO> getOrdersByClientAndDateRange(int clientId, String from, String to,
+                                                                       String after, Integer limit) {
+        // If no range provided, page through all orders of the client
+        LocalDateTime start = LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        if (from != null && !from.isBlank() && to != null && !to.isBlank()) {
+            start = LocalDate.parse(from).atStartOfDay();
+            end = LocalDate.parse(to).atTime(23, 59, 59);
+        }
+
+        // Newest first, so the cursor is the (createdAt, orderId) of the last order already sent
+        LocalDateTime beforeTime = end.plusSeconds(1);
+        int beforeId = Integer.MAX_VALUE;
+        if (after != null && !after.isBlank()) {
+            beforeTime = PageResponse.cursorTime(after);
+            beforeId = PageResponse.cursorId(after);
         }
-        return orderRepository.findByClient_ClientIdAndCreatedAtBetweenOrderByCreatedAtDesc(
-                clientId, LocalDateTime.parse(from + "T00:00:00"), LocalDateTime.parse(to + "T23:59:59"));
+
+        int size = PageResponse.limit(limit);
+        List<OrderSummaryDTO> rows = orderRepository.findClientSummaryPageBefore(
+                clientId, start, end, beforeTime, beforeId, PageRequest.of(0, size + 1));
+        return withLines(PageResponse.of(rows, size,
+                o -> PageResponse.timeCursor(LocalDateTime.parse(o.getCreatedAt()), o.getOrderId())));
     }
 
 
@@ -1,12 +1,20 @@
 package com.project.restau_management.service;
 
+import com.project.restau_management.dto.PageResponse;
+import com.project.restau_management.entity.Money;
 import com.project.restau_management.entity.Order;
 import com.project.restau_management.entity.Payment;
 import com.project.restau_management.entity.PaymentMethod;
+import com.project.restau_management.entity.PaymentStatus;
 import com.project.restau_management.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,20 +24,47 @@ public class PaymentService {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private RollupService rollupService;
+
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
     }
 
+    public PageResponse<Payment> getPaymentsPage(String after, Integer limit) {
+        int size = PageResponse.limit(limit);
+        List<Payment> rows = paymentRepository.findByPaymentIdGreaterThanOrderByPaymentIdAsc(
+                PageResponse.afterId(after), PageRequest.of(0, size + 1));
+        return PageResponse.of(rows, size, p -> String.valueOf(p.getPaymentId()));
+    }
+
     public Optional<Payment> getPaymentById(int id) {
         return paymentRepository.findById(id);
     }
 
+    @Transactional
     public Payment savePayment(Payment payment) {
-        return paymentRepository.save(payment);
+        // Take the previous version out of its bucket before the merge overwrites it
+        if (payment.getPaymentId() != 0) {
+            paymentRepository.findById(payment.getPaymentId()).ifPresent(previous -> {
+                // The merge bypasses the setter, so check the status change against the stored one here
+                if (payment.getStatus() != null) {
+                    previous.getStatus().transitionTo(payment.getStatus());
+                }
+                rollupService.recordPayment(previous, -1);
+            });
+        }
+        Payment saved = paymentRepository.save(payment);
+        rollupService.recordPayment(saved, 1);
+        return saved;
     }
 
+    @Transactional
     public void deletePayment(int id) {
-        paymentRepository.deleteById(id);
+        paymentRepository.findById(id).ifPresent(payment -> {
+            rollupService.recordPayment(payment, -1);
+            paymentRepository.delete(payment);
+        });
     }
 
     public Optional<Payment> getPaymentByOrder(Order order) {
@@ -40,10 +75,17 @@ public class PaymentService {
         return paymentRepository.findByOrderId(orderId);
     }
 
-    public List<Payment> getPaymentsByStatus(String status) {
+    public List<Payment> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status);
     }
 
+    public PageResponse<Payment> getPaymentsByStatus(PaymentStatus status, String after, Integer limit) {
+        int size = PageResponse.limit(limit);
+        List<Payment> rows = paymentRepository.findByStatusAndPaymentIdGreaterThanOrderByPaymentIdAsc(
+                status, PageResponse.afterId(after), PageRequest.of(0, size + 1));
+        return PageResponse.of(rows, size, p -> String.valueOf(p.getPaymentId()));
+    }
+
     public List<Payment> getPaymentsByMethod(PaymentMethod paymentMethod) {
         return paymentRepository.findByPaymentMethod(paymentMethod);
     }
@@ -52,6 +94,21 @@ public class PaymentService {
         return paymentRepository.findByTimestampBetween(start, end);
     }
 
+    public PageResponse<Payment> getPaymentsByDateRange(LocalDateTime start, LocalDateTime end,
+                                                        String after, Integer limit) {
+        // Oldest first; the first page starts just before the range so nothing at "start" is skipped
+        LocalDateTime afterTime = start.minusSeconds(1);
+        int afterId = 0;
+        if (after != null && !after.isBlank()) {
+            afterTime = PageResponse.cursorTime(after);
+            afterId = PageResponse.cursorId(after);
+        }
+        int size = PageResponse.limit(limit);
+        List<Payment> rows = paymentRepository.findDateRangePageAfter(
+                start, end, afterTime, afterId, PageRequest.of(0, size + 1));
+        return PageResponse.of(rows, size, p -> PageResponse.timeCursor(p.getTimestamp(), p.getPaymentId()));
+    }
+
     public Optional<Payment> findByTransactionId(String transactionId) {
         return paymentRepository.findByTransactionId(transactionId);
     }
@@ -60,13 +117,18 @@ public class PaymentService {
         return paymentRepository.findByReceiptNumber(receiptNumber);
     }
 
-    public Double getTotalRevenue(String status, LocalDateTime fromDate) {
-        return paymentRepository.getTotalAmountByStatusAndDate(status, fromDate);
+    public Money getTotalRevenue(PaymentStatus status, LocalDateTime fromDate) {
+        // Rollups are hourly, so only an hour-aligned start can be answered from them exactly
+        if (fromDate.truncatedTo(ChronoUnit.HOURS).equals(fromDate)) {
+            return rollupService.getRevenueSince(status, fromDate);
+        }
+        BigDecimal total = paymentRepository.getTotalAmountByStatusAndDate(status, fromDate);
+        return total != null ? Money.of(total) : Money.ZERO;
     }
 
-    public Double getTodaysRevenue() {
+    public Money getTodaysRevenue() {
         LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
-        return paymentRepository.getTotalAmountByStatusAndDate("COMPLETED", startOfDay);
+        return rollupService.getRevenueSince(PaymentStatus.COMPLETED, startOfDay);
     }
 
 
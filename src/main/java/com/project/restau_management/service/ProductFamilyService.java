@@ -13,6 +13,9 @@ public class ProductFamilyService {
     @Autowired
     private ProductFamilyRepository productFamilyRepository;
 
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
     public List<ProductFamily> getAllProductFamilies() {
         return productFamilyRepository.findAll();
     }
@@ -22,11 +25,14 @@ public class ProductFamilyService {
     }
 
     public ProductFamily saveProductFamily(ProductFamily productFamily) {
-        return productFamilyRepository.save(productFamily);
+        ProductFamily saved = productFamilyRepository.save(productFamily);
+        menuCatalogService.refresh();
+        return saved;
     }
 
     public void deleteProductFamily(String id) {
         productFamilyRepository.deleteById(id);
+        menuCatalogService.refresh();
     }
 
     public Optional<ProductFamily> findByName(String name) {
@@ -0,0 +1,297 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.entity.Product;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory search index over product name, description and notes.
+ * Matching is accent and case insensitive, every query word may be a prefix of an indexed word
+ * (search as you type), and words of four letters or more tolerate typos.
+ * Results are ranked with name matches ahead of description and notes matches.
+ */
+public final class ProductSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final byte NAME_WEIGHT = 3;
+    private static final byte TEXT_WEIGHT = 1;
+
+    private final List<Product> products;
+    // Sorted vocabulary, so every prefix maps to one contiguous range
+    private final String[] terms;
+    private final int[][] postings;
+    private final byte[][] weights;
+    private final Map<String, int[]> termsByTrigram;
+
+    private ProductSearchIndex(List<Product> products, String[] terms, int[][] postings, byte[][] weights,
+                               Map<String, int[]> termsByTrigram) {
+        this.products = products;
+        this.terms = terms;
+        this.postings = postings;
+        this.weights = weights;
+        this.termsByTrigram = termsByTrigram;
+    }
+
+    /**
+     * Build an index over the given products
+     * @param products The products to index, in their default display order
+     * @return The index
+     */
+    public static ProductSearchIndex build(List<Product> products) {
+        Map<String, Posting> byTerm = new HashMap<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            Product product = products.get(doc);
+            addField(byTerm, doc, product.getName(), NAME_WEIGHT);
+            addField(byTerm, doc, product.getDescription(), TEXT_WEIGHT);
+            addField(byTerm, doc, product.getNotes(), TEXT_WEIGHT);
+        }
+
+        String[] terms = byTerm.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+
+        int[][] postings = new int[terms.length][];
+        byte[][] weights = new byte[terms.length][];
+        Map<String, List<Integer>> trigrams = new HashMap<>();
+        for (int t = 0; t < terms.length; t++) {
+            Posting posting = byTerm.get(terms[t]);
+            postings[t] = Arrays.copyOf(posting.docs, posting.size);
+            weights[t] = Arrays.copyOf(posting.weights, posting.size);
+            for (String trigram : trigrams(terms[t])) {
+                trigrams.computeIfAbsent(trigram, k -> new ArrayList<>()).add(t);
+            }
+        }
+
+        Map<String, int[]> termsByTrigram = new HashMap<>(trigrams.size() * 2);
+        trigrams.forEach((trigram, ids) -> termsByTrigram.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new ProductSearchIndex(List.copyOf(products), terms, postings, weights, termsByTrigram);
+    }
+
+    /**
+     * Search the index
+     * @param query Free text typed by the user
+     * @param page Zero-based page number
+     * @param size Page size
+     * @return The requested page of matching products, best match first, or an empty list for a negative page,
+     * a size below 1 or a page past the last hit
+     */
+    public List<Product> search(String query, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || size <= 0 || page < 0) {
+            return List.of();
+        }
+
+        int docCount = products.size();
+        float[] scores = new float[docCount];
+        int[] matchedTokens = new int[docCount];
+        float[] tokenScores = new float[docCount];
+        int[] touched = new int[docCount];
+
+        for (int q = 0; q < tokens.size(); q++) {
+            int touchedCount = scoreToken(tokens.get(q), tokenScores, touched);
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                // Every query word must match, so only docs that matched all previous words stay in
+                if (matchedTokens[doc] == q) {
+                    matchedTokens[doc] = q + 1;
+                    scores[doc] += tokenScores[doc];
+                }
+                tokenScores[doc] = 0;
+            }
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int doc = 0; doc < docCount; doc++) {
+            if (matchedTokens[doc] == tokens.size()) {
+                hits.add(doc);
+            }
+        }
+
+        hits.sort((a, b) -> {
+            int byScore = Float.compare(scores[b], scores[a]);
+            if (byScore != 0) {
+                return byScore;
+            }
+            return Integer.compare(products.get(a).getName().length(), products.get(b).getName().length());
+        });
+
+        // Widened so a far page cannot wrap around to a small or negative offset
+        long from = (long) page * size;
+        if (from >= hits.size()) {
+            return List.of();
+        }
+        int to = (int) Math.min(hits.size(), from + size);
+        List<Product> result = new ArrayList<>(to - (int) from);
+        for (int i = (int) from; i < to; i++) {
+            result.add(products.get(hits.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Accent-fold, lowercase and split text into words, the same way for documents and queries
+     * @param text Raw text
+     * @return The normalized words
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private int scoreToken(String token, float[] tokenScores, int[] touched) {
+        int touchedCount = 0;
+
+        // Exact and prefix matches: one contiguous range of the sorted vocabulary
+        int start = lowerBound(token);
+        for (int t = start; t < terms.length && terms[t].startsWith(token); t++) {
+            float match = terms[t].length() == token.length() ? 1.0f : 0.6f + 0.3f * token.length() / terms[t].length();
+            touchedCount = accumulate(t, match, tokenScores, touched, touchedCount);
+        }
+
+        int maxEdits = maxEdits(token.length());
+        if (maxEdits == 0) {
+            return touchedCount;
+        }
+
+        // Typo tolerance: candidates must share enough trigrams to possibly be within maxEdits
+        // (one edit, a transposition included, breaks at most four trigrams)
+        List<String> queryTrigrams = trigrams(token);
+        int required = queryTrigrams.size() - 4 * maxEdits;
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            int[] candidates = termsByTrigram.get(trigram);
+            if (candidates != null) {
+                for (int t : candidates) {
+                    shared.merge(t, 1, Integer::sum);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> candidate : shared.entrySet()) {
+            int t = candidate.getKey();
+            if (candidate.getValue() < required || terms[t].startsWith(token)) {
+                continue;
+            }
+            int distance = boundedDistance(token, terms[t], maxEdits);
+            if (distance <= maxEdits) {
+                touchedCount = accumulate(t, 0.5f - 0.15f * distance, tokenScores, touched, touchedCount);
+            }
+        }
+        return touchedCount;
+    }
+
+    private int accumulate(int term, float match, float[] tokenScores, int[] touched, int touchedCount) {
+        int[] docs = postings[term];
+        byte[] docWeights = weights[term];
+        for (int i = 0; i < docs.length; i++) {
+            int doc = docs[i];
+            float score = match * docWeights[i];
+            if (tokenScores[doc] == 0) {
+                touched[touchedCount++] = doc;
+                tokenScores[doc] = score;
+            } else if (score > tokenScores[doc]) {
+                tokenScores[doc] = score;
+            }
+        }
+        return touchedCount;
+    }
+
+    private int lowerBound(String token) {
+        int index = Arrays.binarySearch(terms, token);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int maxEdits(int length) {
+        if (length < 4) {
+            return 0;
+        }
+        return length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance, giving up as soon as it exceeds the bound
+     * @return The distance, or bound + 1 if it is larger than the bound
+     */
+    static int boundedDistance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static void addField(Map<String, Posting> byTerm, int doc, String text, byte weight) {
+        for (String token : tokenize(text)) {
+            byTerm.computeIfAbsent(token, k -> new Posting()).add(doc, weight);
+        }
+    }
+
+    private static final class Posting {
+        private int[] docs = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        void add(int doc, byte weight) {
+            // Documents are indexed in order, so a repeat can only be the last entry
+            if (size > 0 && docs[size - 1] == doc) {
+                weights[size - 1] = (byte) Math.max(weights[size - 1], weight);
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
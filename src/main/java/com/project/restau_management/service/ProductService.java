@@ -16,6 +16,9 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MenuCatalogService menuCatalogService;
+
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
@@ -25,11 +28,14 @@ public class ProductService {
     }
 
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        menuCatalogService.refresh();
+        return saved;
     }
 
     public void deleteProduct(int id) {
         productRepository.deleteById(id);
+        menuCatalogService.refresh();
     }
 
     public List<Product> searchByName(String name) {
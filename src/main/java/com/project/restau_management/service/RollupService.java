@@ -0,0 +1,151 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.RevenueBucketDTO;
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.OrderItem;
+import com.project.restau_management.entity.Payment;
+import com.project.restau_management.entity.PaymentRollup;
+import com.project.restau_management.entity.PaymentStatus;
+import com.project.restau_management.entity.ProductSalesRollup;
+import com.project.restau_management.repository.PaymentRollupRepository;
+import com.project.restau_management.repository.ProductSalesRollupRepository;
+import com.project.restau_management.repository.RollupUpsertRepository.PaymentDelta;
+import com.project.restau_management.repository.RollupUpsertRepository.SalesDelta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Keeps hourly payment and per-product sales aggregates up to date as payments and order lines
+ * are written, so revenue and sales reports never scan the payments or order_items tables.
+ */
+@Service
+public class RollupService {
+
+    @Autowired
+    private PaymentRollupRepository paymentRollupRepository;
+    @Autowired
+    private ProductSalesRollupRepository productSalesRollupRepository;
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) a payment from its hourly bucket
+     */
+    public void recordPayment(Payment payment, int sign) {
+        if (payment.getTimestamp() == null || payment.getStatus() == null || payment.getAmount() == null) {
+            return;
+        }
+        paymentRollupRepository.addPayments(List.of(new PaymentDelta(
+                payment.getTimestamp().truncatedTo(ChronoUnit.HOURS),
+                payment.getStatus(),
+                payment.getPaymentMethod() != null ? payment.getPaymentMethod().getMethodId() : 0,
+                sign,
+                payment.getAmount().times(sign))));
+    }
+
+    /**
+     * Add (sign = 1) or remove (sign = -1) order lines from their products' totals, one batch for all lines
+     */
+    public void recordItems(Collection<OrderItem> items, int sign) {
+        Map<Integer, SalesDelta> byProduct = new HashMap<>();
+        addItems(byProduct, items, sign);
+        paymentRollupRepository.addSales(new ArrayList<>(byProduct.values()));
+    }
+
+    /**
+     * Replace edited order lines in their products' totals, one batch for all lines
+     * @param before The lines as they were, detached copies
+     * @param after The same lines after the edit
+     */
+    public void recordItemChanges(Collection<OrderItem> before, Collection<OrderItem> after) {
+        Map<Integer, SalesDelta> byProduct = new HashMap<>();
+        addItems(byProduct, before, -1);
+        addItems(byProduct, after, 1);
+        byProduct.values().removeIf(delta -> delta.quantity() == 0 && delta.revenue().isZero());
+        paymentRollupRepository.addSales(new ArrayList<>(byProduct.values()));
+    }
+
+    private static void addItems(Map<Integer, SalesDelta> byProduct, Collection<OrderItem> items, int sign) {
+        for (OrderItem item : items) {
+            if (item.getProduct() == null || item.getProduct().getProductId() == null) {
+                continue;
+            }
+            SalesDelta delta = new SalesDelta(item.getProduct().getProductId(),
+                    (long) sign * item.getQuantity(), item.getSubtotal().times(sign));
+            byProduct.merge(delta.productId(), delta, (a, b) ->
+                    new SalesDelta(a.productId(), a.quantity() + b.quantity(), a.revenue().plus(b.revenue())));
+        }
+    }
+
+    /**
+     * Throw away every aggregate and recompute them from payments and order_items.
+     * Writes made while the rebuild runs may be counted twice or not at all, so run it off-peak.
+     */
+    @Transactional
+    @Scheduled(cron = "${rollups.rebuild.cron:-}")
+    public void rebuild() {
+        paymentRollupRepository.deleteAllRollups();
+        paymentRollupRepository.rebuildPayments();
+        paymentRollupRepository.rebuildSales();
+    }
+
+    // Backfill once when the rollup tables are introduced on a database that already has history
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (paymentRollupRepository.count() == 0 && productSalesRollupRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    public Money getRevenueSince(PaymentStatus status, LocalDateTime from) {
+        BigDecimal total = paymentRollupRepository.getTotalAmountByStatusSince(status, from.truncatedTo(ChronoUnit.HOURS));
+        return total != null ? Money.of(total) : Money.ZERO;
+    }
+
+    public List<RevenueBucketDTO> getRevenueByDay(PaymentStatus status, LocalDate from, LocalDate to) {
+        return aggregate(findBuckets(status, from, to), r -> r.getBucketHour().toLocalDate().toString());
+    }
+
+    public List<RevenueBucketDTO> getRevenueByHour(PaymentStatus status, LocalDate day) {
+        return aggregate(findBuckets(status, day, day), r -> r.getBucketHour().toString());
+    }
+
+    public List<RevenueBucketDTO> getRevenueByPaymentMethod(PaymentStatus status, LocalDate from, LocalDate to) {
+        return aggregate(findBuckets(status, from, to), r -> String.valueOf(r.getPaymentMethodId()));
+    }
+
+    public Optional<ProductSalesRollup> getProductSales(int productId) {
+        return productSalesRollupRepository.findById(productId);
+    }
+
+    public List<ProductSalesRollup> getTopProducts(int limit) {
+        return productSalesRollupRepository.findAllByOrderByQuantitySoldDesc(PageRequest.of(0, limit));
+    }
+
+    private List<PaymentRollup> findBuckets(PaymentStatus status, LocalDate from, LocalDate to) {
+        return paymentRollupRepository.findByStatusAndBucketHourGreaterThanEqualAndBucketHourLessThanOrderByBucketHour(
+                status, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    private static List<RevenueBucketDTO> aggregate(List<PaymentRollup> rollups, Function<PaymentRollup, String> key) {
+        Map<String, RevenueBucketDTO> buckets = new TreeMap<>();
+        for (PaymentRollup rollup : rollups) {
+            RevenueBucketDTO bucket = buckets.computeIfAbsent(key.apply(rollup),
+                    k -> new RevenueBucketDTO(k, 0, Money.ZERO));
+            bucket.setPaymentCount(bucket.getPaymentCount() + rollup.getPaymentCount());
+            bucket.setTotalAmount(bucket.getTotalAmount().plus(rollup.getTotalAmount()));
+        }
+        return new ArrayList<>(buckets.values());
+    }
+}
@@ -0,0 +1,137 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.repository.TableRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seats and frees tables with a single conditional UPDATE each, so two terminals racing
+ * for the same table can never both win, and keeps counters of how often they collide.
+ */
+@Service
+public class TableOccupancyService {
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    private final AtomicLong claims = new AtomicLong();
+    private final AtomicLong claimConflicts = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong releaseConflicts = new AtomicLong();
+    private final AtomicLong occupied = new AtomicLong();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("tables.claims", claims, AtomicLong::get)
+                .tag("result", "seated").register(meterRegistry);
+        FunctionCounter.builder("tables.claims", claimConflicts, AtomicLong::get)
+                .tag("result", "conflict").register(meterRegistry);
+        FunctionCounter.builder("tables.releases", releases, AtomicLong::get)
+                .tag("result", "freed").register(meterRegistry);
+        FunctionCounter.builder("tables.releases", releaseConflicts, AtomicLong::get)
+                .tag("result", "conflict").register(meterRegistry);
+        // Kept up to date by claim and release, so a scrape costs no query; see resyncOccupied
+        Gauge.builder("tables.occupied", occupied, AtomicLong::get)
+                .description("Tables currently seated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recount the seated tables, picking up tables seated or freed through TableService
+     */
+    @Scheduled(fixedDelayString = "${tables.occupied.resync-ms:60000}")
+    public void resyncOccupied() {
+        occupied.set(tableRepository.countByIsAvailable(false));
+    }
+
+    /**
+     * Mark a table as occupied if it is currently available.
+     * Joins the caller's transaction when there is one, so a rollback frees the table again.
+     * @param tableId The table to seat
+     * @return true if this call seated the table, false if it was already occupied or does not exist
+     */
+    public boolean claim(int tableId) {
+        if (tableRepository.claim(tableId) == 1) {
+            afterCommit(() -> {
+                claims.incrementAndGet();
+                occupied.incrementAndGet();
+            });
+            return true;
+        }
+        claimConflicts.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Mark a table as available if it is currently occupied
+     * @param tableId The table to free
+     * @return true if this call freed the table
+     */
+    public boolean release(int tableId) {
+        if (tableRepository.release(tableId) == 1) {
+            afterCommit(() -> {
+                releases.incrementAndGet();
+                occupied.decrementAndGet();
+            });
+            return true;
+        }
+        releaseConflicts.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Mark tables as available if they are occupied and no ongoing order is seated at them any more
+     * @param tableIds The tables to free
+     * @return How many tables this call freed
+     */
+    public int releaseIdle(Collection<Integer> tableIds) {
+        int released = tableRepository.releaseIdle(tableIds, OrderStatus.ON_GOING);
+        afterCommit(() -> {
+            releases.addAndGet(released);
+            occupied.addAndGet(-released);
+        });
+        releaseConflicts.addAndGet(tableIds.size() - released);
+        return released;
+    }
+
+    /**
+     * Count a seat or a release only once its transaction commits, so a rollback leaves the gauge alone.
+     * Conflicts are counted straight away: the collision happened whatever becomes of the transaction.
+     */
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "claims", claims.get(),
+                "claimConflicts", claimConflicts.get(),
+                "releases", releases.get(),
+                "releaseConflicts", releaseConflicts.get()
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.entity.OrderOutboxEntry;
+import com.project.restau_management.event.OrderChangedEvent;
+import com.project.restau_management.event.OrderOutboxHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Frees the tables of completed and cancelled orders, all tables of a batch in one UPDATE.
+ */
+@Service
+public class TableReleaseHandler implements OrderOutboxHandler {
+
+    @Autowired
+    private TableOccupancyService tableOccupancyService;
+
+    @Override
+    public void handle(List<OrderOutboxEntry> entries) {
+        List<Integer> tableIds = entries.stream()
+                .filter(e -> e.getEventType() == OrderChangedEvent.Type.COMPLETED
+                        || e.getEventType() == OrderChangedEvent.Type.CANCELLED)
+                .map(OrderOutboxEntry::getTableId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (!tableIds.isEmpty()) {
+            tableOccupancyService.releaseIdle(tableIds);
+        }
+    }
+}
@@ -47,11 +47,7 @@ public class TableService {
     }
 
     public void setTableAvailability(int tableId, boolean isAvailable) {
-        Optional<RestaurantTable> table = tableRepository.findById(tableId);
-        if (table.isPresent()) {
-            table.get().setAvailable(isAvailable);
-            tableRepository.save(table.get());
-        }
+        tableRepository.updateAvailability(tableId, isAvailable);
     }
 
 
@@ -0,0 +1,70 @@
+package com.project.restau_management.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Where uploaded files and their image variants live. Keys are relative paths such as
+ * media/ab/ab12...ef.png; a blob is either fully written or absent, never half written.
+ */
+public interface BlobStore {
+
+    record BlobInfo(long size, long lastModified) {
+    }
+
+    /**
+     * Store the content of a stream under a key, replacing any previous content
+     * @param key The key
+     * @param content The content, read to the end but not closed
+     * @param contentType The MIME type, or null if unknown
+     */
+    void put(String key, InputStream content, String contentType) throws IOException;
+
+    /**
+     * Store a local file under a key. The source is consumed: stores on the same file system
+     * move it into place, others upload it and delete it.
+     * @param key The key
+     * @param source The file to store
+     * @param contentType The MIME type, or null if unknown
+     */
+    void putFile(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * Get the size and modification time of a blob
+     * @param key The key
+     * @return The blob info, or null if there is no blob under the key
+     */
+    BlobInfo stat(String key) throws IOException;
+
+    /**
+     * Open part of a blob for reading
+     * @param key The key
+     * @param offset The first byte to read
+     * @param length The number of bytes to read, or -1 for everything after the offset
+     * @return A stream the caller must close
+     * @throws java.nio.file.NoSuchFileException If there is no blob under the key
+     */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    default InputStream open(String key) throws IOException {
+        return open(key, 0, -1);
+    }
+
+    /**
+     * Delete a blob
+     * @param key The key
+     * @return true if a blob was deleted, false if there was none
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Get the local file behind a blob, for callers that can hand a file to the kernel
+     * (sendfile) or decode it in place
+     * @param key The key
+     * @return The file, or null if this store does not keep blobs on the local file system
+     */
+    default Path localPath(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.project.restau_management.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Local blobs read through memory mapped buffers: repeated reads of the same image, e.g. to fill
+ * the hot image cache or to render variants, come straight from the page cache without a read
+ * call per buffer. Writes and sendfile serving work as in {@link LocalBlobStore}.
+ */
+public class MappedBlobStore extends LocalBlobStore {
+
+    public MappedBlobStore(Path root) {
+        super(root);
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long count = length < 0 ? size - offset : Math.min(length, size - offset);
+            if (count > Integer.MAX_VALUE) {
+                return super.open(key, offset, length);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.max(0, count));
+            return new ByteBufferInputStream(buffer);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(target, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
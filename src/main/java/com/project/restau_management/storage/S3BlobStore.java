@@ -0,0 +1,240 @@
+package com.project.restau_management.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Blobs in a bucket of an S3-compatible object store (AWS S3, MinIO, Ceph...), addressed
+ * path-style as endpoint/bucket/key and signed with AWS Signature Version 4. Uploads stream
+ * from a file with an unsigned payload; an object only becomes visible once fully received.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String EMPTY_PAYLOAD = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final HttpClient client;
+
+    public S3BlobStore(URI endpoint, String bucket, String region, String accessKey, String secretKey) {
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    @Override
+    public void put(String key, InputStream content, String contentType) throws IOException {
+        // S3 needs the length up front, so the stream is spooled to a temporary file first
+        Path temp = Files.createTempFile("blob-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            putFile(key, temp, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void putFile(String key, Path source, String contentType) throws IOException {
+        Map<String, String> headers = new TreeMap<>();
+        if (contentType != null) {
+            headers.put("content-type", contentType);
+        }
+        HttpResponse<Void> response = send("PUT", key, headers, UNSIGNED_PAYLOAD,
+                HttpRequest.BodyPublishers.ofFile(source), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IOException("S3 PUT " + key + " failed with HTTP " + response.statusCode());
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public BlobInfo stat(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", key, new TreeMap<>(), EMPTY_PAYLOAD,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("S3 HEAD " + key + " failed with HTTP " + response.statusCode());
+        }
+        long size = response.headers().firstValueAsLong("Content-Length").orElse(0);
+        long lastModified = response.headers().firstValue("Last-Modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                .orElse(0L);
+        return new BlobInfo(size, lastModified);
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        Map<String, String> headers = new TreeMap<>();
+        if (offset > 0 || length >= 0) {
+            headers.put("range", "bytes=" + offset + "-" + (length >= 0 ? String.valueOf(offset + length - 1) : ""));
+        }
+        HttpResponse<InputStream> response = send("GET", key, headers, EMPTY_PAYLOAD,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status == 200 || status == 206) {
+            return response.body();
+        }
+        response.body().close();
+        if (status == 404) {
+            throw new NoSuchFileException(key);
+        }
+        throw new IOException("S3 GET " + key + " failed with HTTP " + status);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        // S3 answers 204 whether or not the object existed, so ask first
+        if (stat(key) == null) {
+            return false;
+        }
+        HttpResponse<Void> response = send("DELETE", key, new TreeMap<>(), EMPTY_PAYLOAD,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 204 && response.statusCode() != 200) {
+            throw new IOException("S3 DELETE " + key + " failed with HTTP " + response.statusCode());
+        }
+        return true;
+    }
+
+    private <T> HttpResponse<T> send(String method, String key, Map<String, String> headers, String payloadHash,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler)
+            throws IOException {
+        String canonicalUri = endpointPath() + "/" + uriEncode(bucket) + "/" + encodeKey(key);
+        String amzDate = AMZ_DATE.format(Instant.now());
+        headers.put("host", endpoint.getRawAuthority());
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("x-amz-date", amzDate);
+        String authorization = authorization(method, canonicalUri, headers, payloadHash, amzDate);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(
+                        endpoint.getScheme() + "://" + endpoint.getRawAuthority() + canonicalUri))
+                .timeout(TIMEOUT)
+                .method(method, body)
+                .header("Authorization", authorization);
+        headers.forEach((name, value) -> {
+            // The client sets Host itself from the URI
+            if (!name.equals("host")) {
+                request.header(name, value);
+            }
+        });
+        try {
+            return client.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during S3 " + method + " " + key, e);
+        }
+    }
+
+    /**
+     * Compute the Authorization header of a request
+     * @param headers The headers to sign, lowercase names, host, x-amz-date and x-amz-content-sha256 included
+     */
+    String authorization(String method, String canonicalUri, Map<String, String> headers, String payloadHash,
+                         String amzDate) {
+        TreeMap<String, String> signed = new TreeMap<>(headers);
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signed.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value.trim()).append('\n'));
+        String signedHeaders = String.join(";", signed.keySet());
+
+        String canonicalRequest = method + "\n" + canonicalUri + "\n\n" + canonicalHeaders + "\n"
+                + signedHeaders + "\n" + payloadHash;
+        String date = amzDate.substring(0, 8);
+        String scope = date + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, "s3");
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        return "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                + ",SignedHeaders=" + signedHeaders + ",Signature=" + signature;
+    }
+
+    private String endpointPath() {
+        String path = endpoint.getRawPath();
+        return path == null || path.equals("/") ? "" : path.replaceAll("/+$", "");
+    }
+
+    private static String encodeKey(String key) {
+        StringBuilder encoded = new StringBuilder();
+        for (String segment : key.split("/", -1)) {
+            if (!encoded.isEmpty()) {
+                encoded.append('/');
+            }
+            encoded.append(uriEncode(segment));
+        }
+        return encoded.toString();
+    }
+
+    // RFC 3986 encoding as SigV4 expects it: everything but unreserved characters
+    private static String uriEncode(String value) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~') {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(HexFormat.of().withUpperCase().toHexDigits(b));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
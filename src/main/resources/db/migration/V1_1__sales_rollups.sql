@@ -0,0 +1,21 @@
+-- Hourly payment totals and per-product sales kept up to date as orders and payments change,
+-- so the reports no longer aggregate the raw tables (see RollupService).
+create table payment_rollups (
+    payment_method_id integer not null,
+    total_amount decimal(14,2) not null,
+    bucket_hour datetime(6) not null,
+    payment_count bigint not null,
+    rollup_id bigint not null auto_increment,
+    status varchar(255) not null,
+    primary key (rollup_id)
+) engine=InnoDB;
+
+create table product_sales_rollups (
+    product_id integer not null,
+    revenue decimal(14,2) not null,
+    quantity_sold bigint not null,
+    primary key (product_id)
+) engine=InnoDB;
+
+alter table payment_rollups
+   add constraint uk_payment_rollups_bucket unique (bucket_hour, status, payment_method_id);
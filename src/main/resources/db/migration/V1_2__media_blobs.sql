@@ -0,0 +1,10 @@
+-- Uploaded images stored once per content hash and shared by reference count (see FileStorageService).
+create table media_blobs (
+    ref_count integer not null,
+    created_at datetime(6) not null,
+    size bigint not null,
+    hash varchar(64) not null,
+    path varchar(500) not null,
+    content_type varchar(255),
+    primary key (hash)
+) engine=InnoDB;
@@ -0,0 +1,4 @@
+-- Optimistic lock on orders, so two terminals editing the same order cannot overwrite each other.
+-- Existing orders start at version 0.
+alter table orders
+   add column version bigint not null default 0;
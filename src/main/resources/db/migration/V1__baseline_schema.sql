@@ -0,0 +1,168 @@
+-- Schema as Hibernate created it with ddl-auto=update before the migrations existed. Databases
+-- that already have these tables are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and skip this script; the tables and columns added since come in the later versions.
+
+create table categories (
+    category_id integer not null auto_increment,
+    description varchar(255),
+    name varchar(255) not null,
+    primary key (category_id)
+) engine=InnoDB;
+
+create table clients (
+    client_id integer not null auto_increment,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    primary key (client_id)
+) engine=InnoDB;
+
+create table order_items (
+    order_id integer,
+    order_item_id integer not null auto_increment,
+    product_id integer,
+    quantity integer not null,
+    subtotal decimal(38,2) not null,
+    unit_price decimal(38,2) not null,
+    details varchar(255),
+    primary key (order_item_id)
+) engine=InnoDB;
+
+create table orders (
+    client_id integer,
+    order_id integer not null auto_increment,
+    table_id integer,
+    total_amount decimal(38,2) not null,
+    user_id integer,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    description varchar(255),
+    status varchar(255) not null,
+    primary key (order_id)
+) engine=InnoDB;
+
+create table payment_methods (
+    is_active bit not null,
+    method_id integer not null auto_increment,
+    processing_fee float(23) not null,
+    name varchar(255) not null,
+    type varchar(255) not null,
+    primary key (method_id)
+) engine=InnoDB;
+
+create table payments (
+    amount float(23) not null,
+    order_id integer,
+    payment_id integer not null auto_increment,
+    payment_method_id integer,
+    timestamp datetime(6) not null,
+    receipt_number varchar(255),
+    status varchar(255) not null,
+    transaction_id varchar(255),
+    primary key (payment_id)
+) engine=InnoDB;
+
+create table product_families (
+    category_id integer,
+    file_size bigint,
+    image_url varchar(500),
+    content_type varchar(255),
+    description TEXT,
+    image_alt_text varchar(255),
+    name varchar(255) not null,
+    original_filename varchar(255),
+    product_family_id varchar(255) not null,
+    primary key (product_family_id)
+) engine=InnoDB;
+
+create table products (
+    category_id integer,
+    price decimal(10,2) not null,
+    product_id integer not null auto_increment,
+    file_size bigint,
+    image_url varchar(500),
+    content_type varchar(255),
+    description TEXT,
+    name varchar(255) not null,
+    notes TEXT,
+    original_filename varchar(255),
+    product_family_id varchar(255),
+    primary key (product_id)
+) engine=InnoDB;
+
+create table tables (
+    capacity integer not null,
+    is_available bit not null,
+    table_id integer not null auto_increment,
+    table_number integer not null,
+    primary key (table_id)
+) engine=InnoDB;
+
+create table users (
+    user_id integer not null auto_increment,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (user_id)
+) engine=InnoDB;
+
+alter table payments
+   add constraint uk_payments_order unique (order_id);
+
+alter table tables
+   add constraint uk_tables_table_number unique (table_number);
+
+alter table users
+   add constraint uk_users_email unique (email);
+
+alter table users
+   add constraint uk_users_username unique (username);
+
+alter table order_items
+   add constraint fk_order_items_order
+   foreign key (order_id)
+   references orders (order_id);
+
+alter table order_items
+   add constraint fk_order_items_product
+   foreign key (product_id)
+   references products (product_id);
+
+alter table orders
+   add constraint fk_orders_client
+   foreign key (client_id)
+   references clients (client_id);
+
+alter table orders
+   add constraint fk_orders_table
+   foreign key (table_id)
+   references tables (table_id);
+
+alter table orders
+   add constraint fk_orders_user
+   foreign key (user_id)
+   references users (user_id);
+
+alter table payments
+   add constraint fk_payments_order
+   foreign key (order_id)
+   references orders (order_id);
+
+alter table payments
+   add constraint fk_payments_payment_method
+   foreign key (payment_method_id)
+   references payment_methods (method_id);
+
+alter table product_families
+   add constraint fk_product_families_category
+   foreign key (category_id)
+   references categories (category_id);
+
+alter table products
+   add constraint fk_products_category
+   foreign key (category_id)
+   references categories (category_id);
+
+alter table products
+   add constraint fk_products_product_family
+   foreign key (product_family_id)
+   references product_families (product_family_id);
@@ -0,0 +1,42 @@
+-- Secondary indexes for the filters and sort orders the repositories use. MySQL already indexes
+-- every foreign key and unique constraint from V1, so those columns only appear here when a
+-- composite index serves a query better.
+
+-- OrderRepository.findByStatus, findSummariesByStatus and findKitchenQueueByStatus (ORDER BY
+-- created_at), findByStatusAndCreatedAfter
+CREATE INDEX idx_orders_status_created ON orders (status, created_at);
+
+-- findByCreatedAtBetween, findSummariesCreatedBetween, the order export (ORDER BY created_at, order_id)
+CREATE INDEX idx_orders_created ON orders (created_at, order_id);
+
+-- findByTableIdAndStatus; also serves findByTable in place of the foreign key index
+CREATE INDEX idx_orders_table_status ON orders (table_id, status);
+
+-- findByClient_ClientIdAndCreatedAtBetweenOrderByCreatedAtDesc and the client keyset pages
+-- (client_id = ?, ORDER BY created_at DESC, order_id DESC)
+CREATE INDEX idx_orders_client_created ON orders (client_id, created_at, order_id);
+
+-- findSummariesByUserId (ORDER BY created_at)
+CREATE INDEX idx_orders_user_created ON orders (user_id, created_at);
+
+-- PaymentRepository.getTotalAmountByStatusAndDate and findByStatus
+CREATE INDEX idx_payments_status_timestamp ON payments (status, timestamp);
+
+-- findByStatusAndPaymentIdGreaterThanOrderByPaymentIdAsc
+CREATE INDEX idx_payments_status_id ON payments (status, payment_id);
+
+-- findByTimestampBetween, findDateRangePageAfter and the payment export (ORDER BY timestamp, payment_id)
+CREATE INDEX idx_payments_timestamp ON payments (timestamp, payment_id);
+
+-- findByTransactionId, findByReceiptNumber
+CREATE INDEX idx_payments_transaction_id ON payments (transaction_id);
+CREATE INDEX idx_payments_receipt_number ON payments (receipt_number);
+
+-- PaymentRollupRepository status and hour range queries
+CREATE INDEX idx_payment_rollups_status_hour ON payment_rollups (status, bucket_hour);
+
+-- ProductSalesRollupRepository.findAllByOrderByQuantitySoldDesc (best sellers)
+CREATE INDEX idx_product_sales_rollups_quantity ON product_sales_rollups (quantity_sold);
+
+-- ClientRepository.findByFirstNameAndLastName
+CREATE INDEX idx_clients_name ON clients (first_name, last_name);
@@ -0,0 +1,27 @@
+-- Order and payment statuses become one-character codes (see OrderStatus and PaymentStatus), so the
+-- status indexes from V2 compare a CHAR(1) instead of a VARCHAR(255). Labels and names are matched
+-- the way OrderStatus.of reads them. An order status nobody recognises becomes CANCELLED, which is
+-- final: reopening it would put a historical order back in the kitchen queues and on its table.
+-- Unknown payment statuses fall back to PENDING.
+
+UPDATE orders SET status = CASE UPPER(TRIM(status))
+    WHEN 'ON GOING' THEN 'O'
+    WHEN 'ON_GOING' THEN 'O'
+    WHEN 'COMPLETED' THEN 'C'
+    WHEN 'CANCELLED' THEN 'X'
+    ELSE 'X' END;
+ALTER TABLE orders MODIFY COLUMN status CHAR(1) NOT NULL;
+
+UPDATE payments SET status = CASE UPPER(TRIM(status))
+    WHEN 'PENDING' THEN 'P'
+    WHEN 'COMPLETED' THEN 'C'
+    WHEN 'FAILED' THEN 'F'
+    WHEN 'REFUNDED' THEN 'R'
+    ELSE 'P' END;
+ALTER TABLE payments MODIFY COLUMN status CHAR(1) NOT NULL;
+
+-- Several old labels may collapse onto one code and collide on the bucket key, so the rollups are
+-- emptied instead and RollupService.backfillIfEmpty recomputes them from the converted rows at startup
+DELETE FROM payment_rollups;
+DELETE FROM product_sales_rollups;
+ALTER TABLE payment_rollups MODIFY COLUMN status CHAR(1) NOT NULL;
@@ -0,0 +1,4 @@
+-- Payment amounts and processing fees were FLOAT and drifted once summed; they become DECIMAL
+-- cents like every other amount, read and written through Money. Existing values round to the cent.
+ALTER TABLE payments MODIFY COLUMN amount DECIMAL(12,2) NOT NULL;
+ALTER TABLE payment_methods MODIFY COLUMN processing_fee DECIMAL(12,2) NOT NULL;
@@ -0,0 +1,13 @@
+-- Responses to POST /api/orders by Idempotency-Key, so a POS that retries after losing the
+-- connection gets the first answer back instead of a second order (see IdempotencyService).
+-- status_code stays NULL while the first attempt runs; rows are purged once idempotency.ttl passes.
+create table idempotency_keys (
+    idempotency_key varchar(100) not null,
+    request_hash varchar(64) not null,
+    status_code integer,
+    response_body longtext,
+    created_at datetime(6) not null,
+    primary key (idempotency_key)
+) engine=InnoDB;
+
+CREATE INDEX idx_idempotency_keys_created ON idempotency_keys (created_at);
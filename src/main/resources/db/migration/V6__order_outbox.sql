@@ -0,0 +1,17 @@
+-- Side effects of order lifecycle changes, written in the same transaction as the order and carried
+-- out afterwards by OrderOutboxDispatcher. A row is deleted once every handler has run; failed rows
+-- wait until next_attempt_at, and are left in place for inspection after outbox.max-attempts.
+create table order_outbox (
+    outbox_id bigint not null auto_increment,
+    order_id integer not null,
+    event_type varchar(20) not null,
+    table_id integer,
+    created_at datetime(6) not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(500),
+    primary key (outbox_id)
+) engine=InnoDB;
+
+-- OrderOutboxRepository.findDueIds (attempts < ?, next_attempt_at <= ? ORDER BY next_attempt_at)
+CREATE INDEX idx_order_outbox_due ON order_outbox (next_attempt_at, attempts);
@@ -0,0 +1,5 @@
+-- When the current attempt for a key started. A key still unanswered long after that belongs to a
+-- process that died mid-request, and the next retry takes it over (idempotency.lease).
+ALTER TABLE idempotency_keys ADD COLUMN claimed_at datetime(6);
+UPDATE idempotency_keys SET claimed_at = created_at;
+ALTER TABLE idempotency_keys MODIFY COLUMN claimed_at datetime(6) NOT NULL;
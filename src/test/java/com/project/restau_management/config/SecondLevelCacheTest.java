@@ -0,0 +1,79 @@
+package com.project.restau_management.config;
+
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.OrderRepository;
+import com.project.restau_management.repository.TableRepository;
+import com.project.restau_management.repository.UserRepository;
+import com.project.restau_management.service.OrderPlacementService;
+import com.project.restau_management.support.JdbcRoundTripCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(JdbcRoundTripCounter.class)
+class SecondLevelCacheTest {
+
+    private static final AtomicInteger TABLE_NUMBERS = new AtomicInteger(8000);
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TableRepository tableRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedOrderLoadsStopQueryingReferenceTables() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String suffix = i + "-" + System.nanoTime();
+            User user = userRepository.save(new User(0, "cached" + suffix, "cached" + suffix + "@test", "secret"));
+            RestaurantTable table = tableRepository.save(new RestaurantTable(0, TABLE_NUMBERS.incrementAndGet(), 4, true));
+            OrderRequestDTO request = new OrderRequestDTO();
+            request.setUserId((long) user.getUserId());
+            request.setTableId((long) table.getTableId());
+            request.setItems(List.of());
+            orders.add(orderPlacementService.placeOrder(request));
+        }
+        List<Integer> ids = orders.stream().map(Order::getOrderId).toList();
+        entityManagerFactory.getCache().evictAll();
+
+        roundTripCounter.reset();
+        assertEquals(4, orderRepository.findAllById(ids).size());
+        long cold = roundTripCounter.count();
+
+        roundTripCounter.reset();
+        assertEquals(4, orderRepository.findAllById(ids).size());
+        long warm = roundTripCounter.count();
+
+        // Cold: the orders, then each user and each table. Warm: only the orders
+        assertTrue(cold >= 9, "expected the reference rows to be queried on the first load, was " + cold);
+        assertEquals(1, warm);
+        FunctionCounter userHits = meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", "users", "result", "hit").functionCounter();
+        assertTrue(userHits.count() >= 4);
+    }
+}
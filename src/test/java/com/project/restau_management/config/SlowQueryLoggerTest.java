@@ -0,0 +1,36 @@
+package com.project.restau_management.config;
+
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.repository.TableRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A threshold of 0 makes every statement "slow"
+@SpringBootTest(properties = "logging.slow-query.threshold-ms=0")
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLoggerTest {
+
+    @Autowired
+    private TableRepository tableRepository;
+
+    @Test
+    void slowStatementsAreLoggedWithTheirBoundValues(CapturedOutput output) {
+        RestaurantTable table = new RestaurantTable();
+        table.setTableNumber(7321);
+        table.setCapacity(6);
+        table.setAvailable(true);
+        tableRepository.save(table);
+
+        tableRepository.findByTableNumber(7321);
+
+        String logged = output.getOut();
+        assertTrue(logged.contains("sql.slow"), logged);
+        assertTrue(logged.matches("(?s).*select .* where .*table_number=\\? \\[7321].*"), logged);
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.restau_management.controller;
+
+import com.project.restau_management.service.HotImageCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the real embedded Tomcat, so large files go out through sendfile
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ImageControllerTest {
+
+    @LocalServerPort
+    private int port;
+    @Value("${file.upload.dir}")
+    private String uploadDir;
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void servesWholeFilesAndRangesThroughSendfile() throws Exception {
+        byte[] content = randomBytes(300_000);
+        String path = write("products/large-" + System.nanoTime() + ".jpg", content);
+
+        HttpResponse<byte[]> full = get(path);
+        assertEquals(200, full.statusCode());
+        assertArrayEquals(content, full.body());
+        assertEquals("image/jpeg", full.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("bytes", full.headers().firstValue("Accept-Ranges").orElseThrow());
+
+        HttpResponse<byte[]> middle = get(path, "Range", "bytes=100000-100099");
+        assertEquals(206, middle.statusCode());
+        assertEquals("bytes 100000-100099/300000", middle.headers().firstValue("Content-Range").orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(content, 100_000, 100_100), middle.body());
+
+        HttpResponse<byte[]> tail = get(path, "Range", "bytes=-200000");
+        assertEquals(206, tail.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(content, 100_000, 300_000), tail.body());
+
+        HttpResponse<byte[]> unsatisfiable = get(path, "Range", "bytes=300000-");
+        assertEquals(416, unsatisfiable.statusCode());
+        assertEquals("bytes */300000", unsatisfiable.headers().firstValue("Content-Range").orElseThrow());
+
+        // A stale If-Range gets the whole file instead of a piece of the wrong one
+        HttpResponse<byte[]> stale = get(path, "Range", "bytes=0-9", "If-Range", "\"something-else\"");
+        assertEquals(200, stale.statusCode());
+        assertEquals(content.length, stale.body().length);
+    }
+
+    @Test
+    void answersConditionalRequestsWithNotModified() throws Exception {
+        String path = write("product-families/cond-" + System.nanoTime() + ".png", randomBytes(5_000));
+
+        HttpResponse<byte[]> first = get(path);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        String lastModified = first.headers().firstValue("Last-Modified").orElseThrow();
+        assertEquals("max-age=3600", first.headers().firstValue("Cache-Control").orElseThrow());
+
+        assertEquals(304, get(path, "If-None-Match", etag).statusCode());
+        assertEquals(304, get(path, "If-Modified-Since", lastModified).statusCode());
+        assertEquals(200, get(path, "If-None-Match", "\"other\"").statusCode());
+    }
+
+    @Test
+    void smallFilesAreServedFromMemoryUntilChanged() throws Exception {
+        byte[] content = randomBytes(8_000);
+        String path = write("products/thumb-" + System.nanoTime() + ".webp", content);
+
+        long hits = hotImageCache.getHits();
+        assertArrayEquals(content, get(path).body());
+        assertArrayEquals(content, get(path).body());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), get(path, "Range", "bytes=10-19").body());
+        assertEquals(hits + 2, hotImageCache.getHits());
+
+        byte[] replaced = randomBytes(8_000);
+        Path file = Paths.get(uploadDir).resolve(path.substring(1));
+        Files.write(file, replaced);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        assertArrayEquals(replaced, get(path).body());
+    }
+
+    @Test
+    void rejectsPathsOutsideTheUploadDirectory() throws Exception {
+        int traversal = get("/products/%2e%2e/%2e%2e/pom.xml").statusCode();
+        assertTrue(traversal == 400 || traversal == 404, "status " + traversal);
+        assertEquals(404, get("/products/missing-" + System.nanoTime() + ".jpg").statusCode());
+    }
+
+    private String write(String relativePath, byte[] content) throws Exception {
+        Path file = Paths.get(uploadDir).resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return "/" + relativePath;
+    }
+
+    private HttpResponse<byte[]> get(String path, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.project.restau_management.controller;
+
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.CategoryRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void placingAnOrderIsVisibleOnThePrometheusEndpoint() throws Exception {
+        Category category = categoryRepository.save(new Category(0, "Desserts", null));
+        Product product = new Product();
+        product.setName("Crème brûlée");
+        product.setPrice(new BigDecimal("6.50"));
+        product.setCategory(category);
+        product = productRepository.save(product);
+        String suffix = String.valueOf(System.nanoTime());
+        User user = userRepository.save(new User(0, "metrics" + suffix, "metrics" + suffix + "@test", "secret"));
+
+        double ordersBefore = meterRegistry.counter("orders.placed").count();
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + user.getUserId() + ",\"items\":[{\"productId\":"
+                                + product.getProductId() + ",\"quantity\":3}]}"))
+                .andExpect(status().isCreated());
+
+        assertEquals(ordersBefore + 1, meterRegistry.counter("orders.placed").count());
+        assertTrue(meterRegistry.get("hibernate.statements.request")
+                .tags("method", "POST", "uri", "/api/orders").summary().totalAmount() > 0);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("orders_placed_total")))
+                .andExpect(content().string(containsString("orders_items_count")))
+                .andExpect(content().string(containsString("tables_occupied")))
+                .andExpect(content().string(containsString("hibernate_statements_request_statements_bucket")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_count")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")));
+    }
+}
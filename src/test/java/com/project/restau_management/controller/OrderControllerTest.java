@@ -0,0 +1,226 @@
+package com.project.restau_management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.CategoryRepository;
+import com.project.restau_management.repository.OrderRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.TableRepository;
+import com.project.restau_management.repository.UserRepository;
+import com.project.restau_management.service.OrderPlacementService;
+import com.project.restau_management.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(JdbcRoundTripCounter.class)
+class OrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+    @MockitoSpyBean
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private TableRepository tableRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void userOrdersTakeTheSameStatementsForOneOrManyOrders() throws Exception {
+        Category category = categoryRepository.save(new Category(0, "Boissons", null));
+        Product coffee = product("Espresso", "1.50", category);
+        Product cake = product("Tarte citron", "3.20", category);
+
+        User few = user();
+        placeOrders(few, 1, coffee, cake);
+        User many = user();
+        placeOrders(many, 25, coffee, cake);
+
+        roundTripCounter.reset();
+        mockMvc.perform(get("/api/orders/user/{userId}", few.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].items.length()").value(2))
+                .andExpect(jsonPath("$[0].items[0].productName").value("Espresso"))
+                .andExpect(jsonPath("$[0].username").value(few.getUsername()));
+        long forOne = roundTripCounter.count();
+
+        roundTripCounter.reset();
+        mockMvc.perform(get("/api/orders/user/{userId}", many.getUserId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(25));
+        long forMany = roundTripCounter.count();
+
+        // Order headers, then all their lines
+        assertEquals(2, forOne);
+        assertEquals(forOne, forMany);
+    }
+
+    @Test
+    void statusesTravelAsLabelsAndIllegalTransitionsConflict() throws Exception {
+        Product coffee = product("Allongé", "1.80", categoryRepository.save(new Category(0, "Cafés", null)));
+        placeOrders(user(), 1, coffee);
+        int orderId = orderPlacementService.placeOrder(request(user(), coffee)).getOrderId();
+
+        mockMvc.perform(get("/api/orders/status/{status}", "ON GOING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ON GOING"));
+
+        mockMvc.perform(post("/api/orders/{id}/cancel", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+        mockMvc.perform(post("/api/orders/{id}/complete", orderId))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void retriedSubmissionIsReplayedWithoutTouchingOrders() throws Exception {
+        Product coffee = product("Ristretto", "1.40", categoryRepository.save(new Category(0, "Express", null)));
+        RestaurantTable table = tableRepository.save(new RestaurantTable(0, 9001, 2, true));
+        OrderRequestDTO request = request(user(), coffee);
+        request.setTableId((long) table.getTableId());
+        String body = objectMapper.writeValueAsString(request);
+
+        String first = mockMvc.perform(post("/api/orders").header("Idempotency-Key", "tablet-7-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long orders = orderRepository.count();
+
+        // The table is occupied by now, so running the order again would fail instead of replaying
+        roundTripCounter.reset();
+        String retried = mockMvc.perform(post("/api/orders").header("Idempotency-Key", "tablet-7-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(0, roundTripCounter.count());
+        assertEquals(objectMapper.readTree(first), objectMapper.readTree(retried));
+        assertEquals(orders, orderRepository.count());
+
+        request.setDescription("Sans sucre");
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "tablet-7-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void quantityUpdatesReportUnknownOrdersAndLines() throws Exception {
+        Product coffee = product("Noisette", "1.90", categoryRepository.save(new Category(0, "Crèmes", null)));
+        int orderId = orderPlacementService.placeOrder(request(user(), coffee)).getOrderId();
+
+        mockMvc.perform(put("/api/orders/{id}/quantities", Integer.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/api/orders/{id}/quantities", orderId)
+                        .contentType(MediaType.APPLICATION_JSON).content("[{\"orderItemId\":-1,\"quantity\":3}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Order item -1 is not on order " + orderId));
+    }
+
+    @Test
+    void databaseFailuresAreNotReplayedToRetries() throws Exception {
+        Product coffee = product("Lungo", "1.60", categoryRepository.save(new Category(0, "Longs", null)));
+        String body = objectMapper.writeValueAsString(request(user(), coffee));
+
+        doThrow(new QueryTimeoutException("Lock wait timeout exceeded")).when(orderPlacementService).placeOrder(any());
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "tablet-8-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isServiceUnavailable());
+
+        // The key was released, so the retry places the order instead of replaying the failure
+        reset(orderPlacementService);
+        mockMvc.perform(post("/api/orders").header("Idempotency-Key", "tablet-8-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() throws Exception {
+        mockMvc.perform(get("/api/orders").param("after", "abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/client/1").param("after", "%%%"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders/client/1").param("from", "August").param("to", "2025-08-31"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportsRejectMalformedDates() throws Exception {
+        mockMvc.perform(get("/api/orders/export").param("from", "2025-13-01").param("to", "2025-12-31"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/api/payments/export").param("start", "yesterday").param("end", "2025-12-31T23:59:59"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    private void placeOrders(User user, int count, Product... products) {
+        for (int i = 0; i < count; i++) {
+            orderPlacementService.placeOrder(request(user, products));
+        }
+    }
+
+    private OrderRequestDTO request(User user, Product... products) {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserId((long) user.getUserId());
+        request.setItems(Arrays.stream(products).map(p -> {
+            OrderItemDTO line = new OrderItemDTO();
+            line.setProductId((long) p.getProductId());
+            line.setQuantity(2);
+            return line;
+        }).toList());
+        return request;
+    }
+
+    private Product product(String name, String price, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    private User user() {
+        String suffix = String.valueOf(System.nanoTime());
+        return userRepository.save(new User(0, "reader" + suffix, "reader" + suffix + "@test", "secret"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.restau_management.controller;
+
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.service.CategoryService;
+import com.project.restau_management.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void unchangedMenuAnswersNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void productWriteSwapsMenuVersion() throws Exception {
+        String before = mockMvc.perform(get("/api/products"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        Category category = categoryService.saveCategory(new Category(0, "Desserts", null));
+        Product product = new Product();
+        product.setName("Tarte tatin");
+        product.setPrice(new BigDecimal("6.50"));
+        product.setCategory(category);
+        Product saved = productService.saveProduct(product);
+
+        String after = mockMvc.perform(get("/api/products").header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(before, after);
+
+        mockMvc.perform(get("/api/products/category/" + category.getCategoryId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(saved.getProductId()));
+    }
+
+    @Test
+    void searchRejectsNegativePageAndEmptySize() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("name", "cr").param("page", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/search").param("name", "cr").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/search").param("name", "cr")
+                        .param("page", String.valueOf(Integer.MAX_VALUE)).param("size", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+}
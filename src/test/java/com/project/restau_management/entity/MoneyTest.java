@@ -0,0 +1,44 @@
+package com.project.restau_management.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void sumsStayExactWhereFloatDrifts() {
+        Money total = Money.ZERO;
+        float drifting = 0f;
+        for (int i = 0; i < 1000; i++) {
+            total = total.plus(Money.parse("0.10"));
+            drifting += 0.10f;
+        }
+
+        assertEquals(Money.ofCents(10_000), total);
+        assertNotEquals(0, new BigDecimal("100.00").compareTo(BigDecimal.valueOf(drifting)));
+        assertEquals(Money.parse("7.47"), Money.parse("2.49").times(3));
+    }
+
+    @Test
+    void roundsHalfUpToTheCentAndPrintsTwoDecimals() {
+        assertEquals(Money.ofCents(1235), Money.of(new BigDecimal("12.345")));
+        assertEquals("12.50", Money.parse("12.5").toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals(new BigDecimal("12.50"), Money.ofCents(1250).toBigDecimal());
+    }
+
+    @Test
+    void travelsAsAPlainJsonNumber() throws Exception {
+        assertEquals("12.50", mapper.writeValueAsString(Money.ofCents(1250)));
+        assertEquals(Money.ofCents(1250), mapper.readValue("12.5", Money.class));
+        assertEquals(Money.ofCents(1200), mapper.readValue("12", Money.class));
+        assertEquals(Money.ofCents(410), mapper.readValue("\"4.10\"", Money.class));
+        assertNull(mapper.readValue("null", Money.class));
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.restau_management.repository;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * EXPLAINs the SQL behind the repository filters against the migrated schema and fails on a full
+ * table scan. Runs on the embedded H2; pointed at MySQL it checks for access type ALL instead.
+ */
+@SpringBootTest
+class QueryIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // OrderRepository
+            "SELECT * FROM orders o WHERE o.status = 'O' ORDER BY o.created_at",
+            "SELECT * FROM orders o WHERE o.status = 'O' AND o.created_at >= TIMESTAMP '2026-01-01 00:00:00'",
+            "SELECT * FROM orders o WHERE o.created_at BETWEEN TIMESTAMP '2026-01-01 00:00:00' AND TIMESTAMP '2026-01-02 00:00:00'",
+            "SELECT * FROM orders o WHERE o.table_id = 1 AND o.status = 'O'",
+            "SELECT * FROM orders o WHERE o.client_id = 1 AND o.created_at BETWEEN TIMESTAMP '2026-01-01 00:00:00' "
+                    + "AND TIMESTAMP '2026-02-01 00:00:00' ORDER BY o.created_at DESC, o.order_id DESC",
+            "SELECT * FROM orders o WHERE o.user_id = 1 ORDER BY o.created_at",
+            "SELECT * FROM order_items i WHERE i.order_id = 1",
+            // PaymentRepository
+            "SELECT SUM(p.amount) FROM payments p WHERE p.status = 'C' AND p.timestamp >= TIMESTAMP '2026-01-01 00:00:00'",
+            "SELECT * FROM payments p WHERE p.status = 'C' AND p.payment_id > 100 ORDER BY p.payment_id",
+            "SELECT * FROM payments p WHERE p.timestamp BETWEEN TIMESTAMP '2026-01-01 00:00:00' "
+                    + "AND TIMESTAMP '2026-01-02 00:00:00' ORDER BY p.timestamp, p.payment_id",
+            "SELECT * FROM payments p WHERE p.transaction_id = 'TX-1'",
+            "SELECT * FROM payments p WHERE p.receipt_number = 'R-1'",
+            "SELECT * FROM payments p WHERE p.order_id = 1",
+            // Rollups and clients
+            "SELECT * FROM payment_rollups r WHERE r.status = 'C' AND r.bucket_hour >= TIMESTAMP '2026-01-01 00:00:00'",
+            "SELECT * FROM clients c WHERE c.first_name = 'Amina' AND c.last_name = 'Benali'"
+    })
+    void repositoryFiltersUseAnIndex(String sql) {
+        String product = jdbcTemplate.execute((Connection c) -> c.getMetaData().getDatabaseProductName());
+        if ("MySQL".equals(product)) {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+            assertFalse(plan.stream().anyMatch(row -> "ALL".equals(row.get("type"))), plan::toString);
+        } else {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+}
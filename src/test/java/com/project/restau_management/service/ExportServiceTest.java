@@ -0,0 +1,117 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.*;
+import com.project.restau_management.repository.ClientRepository;
+import com.project.restau_management.repository.PaymentMethodRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.UserRepository;
+import com.project.restau_management.support.ExportHeapProbe;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Test
+    void paymentsExportAsCsvWithEscapedFields() throws Exception {
+        PaymentMethod card = paymentMethodRepository.save(new PaymentMethod(0, "CARD", "Visa, debit", true, Money.ZERO));
+        Payment payment = new Payment();
+        payment.setAmount(Money.parse("12.50"));
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setTransactionId("TX \"1\"");
+        payment.setPaymentMethod(card);
+        payment = paymentService.savePayment(payment);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocalDateTime now = LocalDateTime.now();
+        exportService.exportPayments(now.minusMinutes(5), now.plusMinutes(5), ExportService.Format.CSV, out);
+
+        String id = payment.getPaymentId() + ",";
+        String line = out.toString(StandardCharsets.UTF_8).lines()
+                .filter(l -> l.startsWith(id)).findFirst().orElseThrow();
+        assertTrue(line.endsWith(",COMPLETED,12.50,\"TX \"\"1\"\"\",,,\"Visa, debit\""));
+    }
+
+    @Test
+    void clientOrdersExportAsOneNdjsonObjectPerOrderWithNestedLines() throws Exception {
+        User user = userRepository.save(new User(0, "export" + System.nanoTime(), "export" + System.nanoTime() + "@test", "secret"));
+        Client client = clientRepository.save(new Client(0, "Export", "Client"));
+        Product product = new Product();
+        product.setName("Croissant");
+        product.setPrice(new BigDecimal("1.20"));
+        product = productRepository.save(product);
+
+        for (int quantity = 1; quantity <= 2; quantity++) {
+            OrderItemDTO first = new OrderItemDTO();
+            first.setProductId((long) product.getProductId());
+            first.setQuantity(quantity);
+            OrderItemDTO second = new OrderItemDTO();
+            second.setProductId((long) product.getProductId());
+            second.setQuantity(3);
+            OrderRequestDTO request = new OrderRequestDTO();
+            request.setUserId((long) user.getUserId());
+            request.setClientId((long) client.getClientId());
+            request.setItems(List.of(first, second));
+            orderPlacementService.placeOrder(request);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocalDateTime now = LocalDateTime.now();
+        long rows = exportService.exportOrders(client.getClientId(), now.minusMinutes(5), now.plusMinutes(5),
+                ExportService.Format.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(4, rows);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"totalAmount\":4.80"));
+        assertTrue(lines.get(1).contains("\"items\":[{"));
+        assertEquals(2, lines.get(1).split("\"productName\":\"Croissant\"", -1).length - 1);
+    }
+
+    @Test
+    void millionRowExportFitsInSmallFixedHeap() throws Exception {
+        // The rows alone are well over 100 MB as CSV, so anything that buffers the export
+        // instead of streaming it runs out of memory in a 48 MB heap
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx48m",
+                "-cp", System.getProperty("java.class.path"),
+                ExportHeapProbe.class.getName(),
+                "1000000", "csv", "target/export-probe")
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES));
+
+        assertEquals(0, process.exitValue(), output);
+        assertTrue(output.contains("rows=1000000"), output);
+    }
+}
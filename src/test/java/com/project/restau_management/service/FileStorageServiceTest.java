@@ -0,0 +1,167 @@
+package com.project.restau_management.service;
+
+import com.jayway.jsonpath.JsonPath;
+import com.project.restau_management.entity.Category;
+import com.project.restau_management.repository.MediaBlobRepository;
+import com.project.restau_management.service.FileStorageService.ImageVariant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FileStorageServiceTest {
+
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+    @Autowired
+    private CategoryService categoryService;
+
+    @Test
+    void uploadGetsThumbnailAndMediumVariantsServedBySizeParameter() throws Exception {
+        byte[] photo = photo(2400, 1600);
+        String relativePath = fileStorageService.storeFile(
+                new MockMultipartFile("image", "plat.png", "image/png", photo));
+
+        Path thumb = fileStorageService.getFullPath(awaitVariant(relativePath, ImageVariant.THUMB));
+        Path medium = fileStorageService.getFullPath(awaitVariant(relativePath, ImageVariant.MEDIUM));
+
+        BufferedImage thumbImage = ImageIO.read(thumb.toFile());
+        assertEquals(160, thumbImage.getWidth());
+        assertEquals(107, thumbImage.getHeight());
+        assertEquals(480, ImageIO.read(medium.toFile()).getWidth());
+        assertTrue(Files.size(thumb) < photo.length / 20);
+
+        byte[] served = mockMvc.perform(get(relativePath).param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Files.readAllBytes(thumb), served);
+        assertEquals(photo.length, mockMvc.perform(get(relativePath))
+                .andReturn().getResponse().getContentAsByteArray().length);
+
+        fileStorageService.deleteImageVariants(relativePath);
+        assertNull(fileStorageService.findVariant(relativePath, ImageVariant.THUMB));
+        assertNull(fileStorageService.findVariant(relativePath, ImageVariant.MEDIUM));
+    }
+
+    @Test
+    void sameContentIsStoredOnceAndDeletedWithItsLastReference() throws Exception {
+        byte[] photo = photo(300, 200);
+        String first = fileStorageService.storeFile(new MockMultipartFile("image", "a.PNG", "image/png", photo));
+        String second = fileStorageService.storeFile(new MockMultipartFile("image", "b.png", "image/png", photo));
+
+        assertEquals(first, second);
+        String hash = FileStorageService.mediaHash(first);
+        assertTrue(first.endsWith("/" + hash.substring(0, 2) + "/" + hash + ".png"));
+        assertEquals(2, mediaBlobRepository.findById(hash).orElseThrow().getRefCount());
+
+        Path file = fileStorageService.getFullPath(first);
+        fileStorageService.deleteFile(first);
+        assertTrue(Files.exists(file));
+        assertEquals(1, mediaBlobRepository.findById(hash).orElseThrow().getRefCount());
+
+        fileStorageService.deleteFile(second);
+        assertTrue(mediaBlobRepository.findById(hash).isEmpty());
+        // The orphaned file is removed in the background
+        for (int i = 0; i < 50 && Files.exists(file); i++) {
+            Thread.sleep(100);
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void storedFilesAreImmutableWithStrongEtags() throws Exception {
+        String relativePath = fileStorageService.storeFile(
+                new MockMultipartFile("image", "menu.png", "image/png", photo(200, 120)));
+        String hash = FileStorageService.mediaHash(relativePath);
+
+        mockMvc.perform(get(relativePath))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+        mockMvc.perform(get(relativePath).header("If-None-Match", "\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+
+        // A variant is rendered on first request if the background task has not got to it yet
+        fileStorageService.deleteImageVariants(relativePath);
+        mockMvc.perform(get(relativePath).param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + hash + "-thumb\""));
+    }
+
+    @Test
+    void uploadsAreStoredAfterTheServletThreadIsReleased() throws Exception {
+        Category category = categoryService.saveCategory(new Category(0, "Entrées", null));
+        MvcResult pending = mockMvc.perform(multipart("/api/product-families")
+                        .file(new MockMultipartFile("image", "soupe.png", "image/png", photo(320, 200)))
+                        .param("name", "Soupes")
+                        .param("description", "Soupe du jour")
+                        .param("categoryId", String.valueOf(category.getCategoryId())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String imageUrl = JsonPath.read(body, "$.imageUrl");
+        assertNotNull(FileStorageService.mediaHash(imageUrl));
+        assertTrue(fileStorageService.fileExists(imageUrl));
+    }
+
+    private String awaitVariant(String original, ImageVariant variant) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String found = fileStorageService.findVariant(original, variant);
+            if (found != null) {
+                return found;
+            }
+            Thread.sleep(100);
+        }
+        return fail("No " + variant + " variant generated for " + original);
+    }
+
+    // A gradient with noise, so the PNG does not compress to almost nothing like a flat color would
+    private static byte[] photo(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.DARK_GRAY));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        Random random = new Random(42);
+        for (int y = 0; y < height; y += 2) {
+            for (int x = 0; x < width; x += 2) {
+                image.setRGB(x, y, image.getRGB(x, y) ^ random.nextInt(0x0F0F0F));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,143 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Import(JdbcRoundTripCounter.class)
+class IdempotencyServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aBurstOfRetriesRunsTheRequestOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                responses.add(pool.submit(() -> idempotencyService.execute(key, Map.of("table", 4), () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("orderId", 42));
+                })));
+            }
+            // Everyone but the winner is turned away while the first attempt is still running
+            for (int i = 0; i < 200 && runs.get() == 0; i++) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            int created = 0;
+            for (Future<ResponseEntity<?>> response : responses) {
+                HttpStatus status = HttpStatus.valueOf(response.get(30, TimeUnit.SECONDS).getStatusCode().value());
+                assertTrue(status == HttpStatus.CREATED || status == HttpStatus.CONFLICT, status.toString());
+                created += status == HttpStatus.CREATED ? 1 : 0;
+            }
+            assertEquals(1, runs.get());
+            assertEquals(1, created);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ResponseEntity<?> retried = idempotencyService.execute(key, Map.of("table", 4), () -> fail("ran twice"));
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertEquals("{\"orderId\":42}", retried.getBody());
+    }
+
+    @Test
+    void retriesTheMemoryNoLongerHoldsAreReadBackFromTheTable() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute(key, Map.of("table", 5), () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("orderId", 7)));
+        idempotencyService.clearRecent();
+
+        roundTripCounter.reset();
+        ResponseEntity<?> retried = idempotencyService.execute(key, Map.of("table", 5), () -> fail("ran twice"));
+
+        assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+        assertEquals("{\"orderId\":7}", retried.getBody());
+        assertEquals("true", retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        // The INSERT that finds the key taken, then the read of the recorded response
+        assertEquals(2, roundTripCounter.count());
+    }
+
+    @Test
+    void serverErrorsReleaseTheKeyForTheNextAttempt() {
+        String key = UUID.randomUUID().toString();
+        ResponseEntity<?> failed = idempotencyService.execute(key, "payload",
+                () -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, failed.getStatusCode());
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(key, "payload", () -> {
+            throw new IllegalArgumentException("boom");
+        }));
+
+        ResponseEntity<?> retried = idempotencyService.execute(key, "payload", () -> ResponseEntity.ok().build());
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertNull(retried.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void aClaimLeftBehindByADeadAttemptIsTakenOverAfterTheLease() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // An attempt that never answers, as if its process had stopped mid-request
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> idempotencyService.execute(key, "payload", () -> {
+                running.countDown();
+                await(release);
+                return ResponseEntity.status(HttpStatus.CREATED).build();
+            }));
+            assertTrue(running.await(30, TimeUnit.SECONDS));
+            assertEquals(HttpStatus.CONFLICT, idempotencyService.execute(key, "payload", () -> fail("ran twice")).getStatusCode());
+
+            jdbcTemplate.update("UPDATE idempotency_keys SET claimed_at = ? WHERE idempotency_key = ?",
+                    LocalDateTime.now().minusHours(1), key);
+            ResponseEntity<?> retried = idempotencyService.execute(key, "payload",
+                    () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("orderId", 9)));
+            assertEquals(HttpStatus.CREATED, retried.getStatusCode());
+            assertEquals(Map.of("orderId", 9), retried.getBody());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
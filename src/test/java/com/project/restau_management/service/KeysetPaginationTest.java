@@ -0,0 +1,109 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderSummaryDTO;
+import com.project.restau_management.dto.PageResponse;
+import com.project.restau_management.entity.Client;
+import com.project.restau_management.entity.Money;
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.repository.ClientRepository;
+import com.project.restau_management.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class KeysetPaginationTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ClientService clientService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void idCursorWalksEveryRowOnceInOrder() {
+        for (int i = 0; i < 7; i++) {
+            clientRepository.save(new Client(0, "Page" + i, "Client"));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageResponse<Client> page = clientService.getClientsPage(cursor, 3);
+            assertTrue(page.getItems().size() <= 3);
+            page.getItems().forEach(c -> seen.add(c.getClientId()));
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.isHasMore());
+        } while (cursor != null);
+
+        assertEquals(clientRepository.count(), seen.size());
+        assertEquals(seen.stream().sorted().toList(), seen);
+    }
+
+    @Test
+    void clientOrdersPageNewestFirstAcrossTiedTimestamps() {
+        Client client = clientRepository.save(new Client(0, "Tied", "Timestamps"));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Order order = new Order();
+            order.setStatus(OrderStatus.COMPLETED);
+            order.setTotalAmount(Money.ofCents(1000));
+            order.setClient(client);
+            ids.add(orderRepository.save(order).getOrderId());
+        }
+        // Several orders in the same second must neither repeat nor go missing between pages
+        LocalDateTime sameSecond = LocalDateTime.of(2025, 8, 14, 12, 0);
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE client_id = ? AND order_id <= ?",
+                sameSecond, client.getClientId(), ids.get(5));
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE client_id = ? AND order_id > ?",
+                sameSecond.plusHours(1), client.getClientId(), ids.get(5));
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageResponse<OrderSummaryDTO> page = orderService.getOrdersByClientAndDateRange(
+                    client.getClientId(), "2025-08-01", "2025-08-31", cursor, 3);
+            page.getItems().forEach(o -> seen.add(o.getOrderId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Integer> expected = new ArrayList<>(ids.subList(6, 8));
+        expected.addAll(ids.subList(0, 6));
+        expected.subList(0, 2).sort(Comparator.reverseOrder());
+        expected.subList(2, 8).sort(Comparator.reverseOrder());
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void malformedCursorsAreRejectedAsInvalid() {
+        assertThrows(PageResponse.InvalidCursorException.class, () -> PageResponse.afterId("abc"));
+        assertThrows(PageResponse.InvalidCursorException.class, () -> PageResponse.cursorTime("not base64!"));
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2025-08-14T12:00".getBytes(StandardCharsets.UTF_8));
+        assertThrows(PageResponse.InvalidCursorException.class, () -> PageResponse.cursorId(noSeparator));
+        String badTime = Base64.getUrlEncoder().encodeToString("yesterday|4".getBytes(StandardCharsets.UTF_8));
+        assertThrows(PageResponse.InvalidCursorException.class, () -> PageResponse.cursorTime(badTime));
+    }
+
+    @Test
+    void limitIsClamped() {
+        assertEquals(PageResponse.DEFAULT_LIMIT, PageResponse.limit(null));
+        assertEquals(PageResponse.MAX_LIMIT, PageResponse.limit(100_000));
+        assertEquals(1, PageResponse.limit(0));
+    }
+}
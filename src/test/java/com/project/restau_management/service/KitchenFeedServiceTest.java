@@ -0,0 +1,230 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.entity.Product;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.OrderRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.UserRepository;
+import com.project.restau_management.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import({JdbcRoundTripCounter.class, KitchenFeedServiceTest.SnapshotHook.class})
+class KitchenFeedServiceTest {
+
+    private static final int SCREENS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private KitchenFeedService kitchenFeedService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SnapshotHook snapshotHook;
+
+    // Runs a hook right after the next kitchen queue read, and counts down once a change has been reloaded for the screens
+    @TestConfiguration
+    static class SnapshotHook implements BeanPostProcessor {
+
+        volatile Runnable afterQueueRead;
+        volatile CountDownLatch reloaded = new CountDownLatch(0);
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof OrderRepository)) {
+                return bean;
+            }
+            return Proxy.newProxyInstance(getClass().getClassLoader(), ClassUtils.getAllInterfaces(bean), (p, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(bean, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                Runnable hook = afterQueueRead;
+                if (method.getName().equals("findKitchenQueueByStatus") && hook != null) {
+                    afterQueueRead = null;
+                    hook.run();
+                } else if (method.getName().equals("findWithItemsByOrderId")) {
+                    reloaded.countDown();
+                }
+                return result;
+            });
+        }
+    }
+
+    @Test
+    void fiftyScreensReceiveEachChangeFromASingleReload() throws Exception {
+        CountDownLatch snapshots = new CountDownLatch(SCREENS);
+        CountDownLatch deltas = new CountDownLatch(SCREENS);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/stream"))
+                .header("Accept", "text/event-stream")
+                .build();
+        List<EventCounter> screens = new ArrayList<>();
+        for (int i = 0; i < SCREENS; i++) {
+            EventCounter screen = new EventCounter(snapshots, deltas);
+            screens.add(screen);
+            client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(screen));
+        }
+        assertTrue(snapshots.await(30, TimeUnit.SECONDS), "not every screen received its snapshot");
+
+        // A screen showing completed orders only hears about orders that reach that status
+        CountDownLatch completedSnapshot = new CountDownLatch(1);
+        CountDownLatch completedDeltas = new CountDownLatch(1);
+        EventCounter completedScreen = new EventCounter(completedSnapshot, completedDeltas);
+        client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/stream?status=COMPLETED"))
+                        .header("Accept", "text/event-stream")
+                        .build(),
+                HttpResponse.BodyHandlers.fromLineSubscriber(completedScreen));
+        assertTrue(completedSnapshot.await(30, TimeUnit.SECONDS), "the completed screen received no snapshot");
+        assertEquals(SCREENS + 1, kitchenFeedService.getSubscriberCount());
+
+        roundTripCounter.reset();
+        int orderId = orderPlacementService.placeOrder(newOrder()).getOrderId();
+        assertTrue(deltas.await(30, TimeUnit.SECONDS), "not every screen received the new order");
+
+        // Writing the order (5 with its rollup batch) plus one reload with its eager to-one selects,
+        // whatever the number of screens; polling would cost at least one query per screen per interval
+        assertTrue(roundTripCounter.count() <= 9, "round trips: " + roundTripCounter.count());
+        assertEquals(1, completedDeltas.getCount());
+
+        orderService.completeOrder(orderId);
+        assertTrue(completedDeltas.await(30, TimeUnit.SECONDS), "the completed screen missed the completed order");
+        screens.forEach(EventCounter::cancel);
+        completedScreen.cancel();
+    }
+
+    @Test
+    void aChangeCommittedWhileTheSnapshotIsReadArrivesAfterIt() throws Exception {
+        // Once the screen has read its queue, another terminal places and completes an order, and the
+        // delta gets time to go out before the snapshot that predates it
+        CountDownLatch reloaded = new CountDownLatch(2);
+        snapshotHook.reloaded = reloaded;
+        snapshotHook.afterQueueRead = () -> {
+            Thread terminal = new Thread(() -> orderService.completeOrder(
+                    orderPlacementService.placeOrder(newOrder()).getOrderId()));
+            try {
+                terminal.start();
+                terminal.join();
+                assertTrue(reloaded.await(30, TimeUnit.SECONDS));
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch delta = new CountDownLatch(1);
+        EventCounter screen = new EventCounter(new CountDownLatch(1), delta) {
+            @Override
+            public void onNext(String line) {
+                if (line.startsWith("event:")) {
+                    events.add(line);
+                }
+                super.onNext(line);
+            }
+        };
+        HttpClient.newHttpClient().sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/stream?status=COMPLETED"))
+                        .header("Accept", "text/event-stream")
+                        .build(),
+                HttpResponse.BodyHandlers.fromLineSubscriber(screen));
+
+        assertTrue(delta.await(30, TimeUnit.SECONDS), "the screen missed the order completed during its snapshot");
+        assertEquals("event:snapshot", events.get(0));
+        screen.cancel();
+    }
+
+    private OrderRequestDTO newOrder() {
+        User user = userRepository.save(new User(0, "chef" + System.nanoTime(), "chef" + System.nanoTime() + "@test", "secret"));
+        Product product = new Product();
+        product.setName("Croque monsieur");
+        product.setPrice(new BigDecimal("7.00"));
+        product = productRepository.save(product);
+
+        OrderItemDTO line = new OrderItemDTO();
+        line.setProductId((long) product.getProductId());
+        line.setQuantity(2);
+
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserId((long) user.getUserId());
+        request.setItems(List.of(line));
+        return request;
+    }
+
+    private static class EventCounter implements Flow.Subscriber<String> {
+
+        private final CountDownLatch snapshots;
+        private final CountDownLatch deltas;
+        private Flow.Subscription subscription;
+
+        EventCounter(CountDownLatch snapshots, CountDownLatch deltas) {
+            this.snapshots = snapshots;
+            this.deltas = deltas;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:snapshot")) {
+                snapshots.countDown();
+            } else if (line.equals("event:order")) {
+                deltas.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            subscription.cancel();
+        }
+    }
+}
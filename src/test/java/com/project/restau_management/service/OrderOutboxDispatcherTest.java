@@ -0,0 +1,183 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.Client;
+import com.project.restau_management.entity.Order;
+import com.project.restau_management.entity.OrderOutboxEntry;
+import com.project.restau_management.entity.OrderStatus;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.event.OrderChangedEvent;
+import com.project.restau_management.event.OrderOutboxHandler;
+import com.project.restau_management.repository.ClientRepository;
+import com.project.restau_management.repository.OrderOutboxRepository;
+import com.project.restau_management.repository.TableRepository;
+import com.project.restau_management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A long backoff keeps a failed entry out of any sweep until the test makes it due itself
+@SpringBootTest(properties = "outbox.backoff-ms=600000")
+class OrderOutboxDispatcherTest {
+
+    private static final AtomicInteger TABLE_NUMBERS = new AtomicInteger(7000);
+    private static final AtomicInteger ORDER_IDS = new AtomicInteger(-1000);
+
+    @Autowired
+    private OrderOutboxDispatcher orderOutboxDispatcher;
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private TableReleaseHandler tableReleaseHandler;
+    @Autowired
+    private TableRepository tableRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private FlakyHandler flakyHandler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class Handlers {
+
+        @Bean
+        FlakyHandler flakyHandler() {
+            return new FlakyHandler();
+        }
+    }
+
+    // Fails for as long as an order is marked, and counts how often each order went by
+    static class FlakyHandler implements OrderOutboxHandler {
+
+        final Set<Integer> failing = ConcurrentHashMap.newKeySet();
+        final Map<Integer, AtomicInteger> seen = new ConcurrentHashMap<>();
+
+        @Override
+        public void handle(List<OrderOutboxEntry> entries) {
+            entries.forEach(e -> seen.computeIfAbsent(e.getOrderId(), k -> new AtomicInteger()).incrementAndGet());
+            for (OrderOutboxEntry entry : entries) {
+                if (failing.contains(entry.getOrderId())) {
+                    throw new IllegalStateException("receipt printer offline");
+                }
+            }
+        }
+    }
+
+    @Test
+    void closingAnOrderFreesItsTableAfterCommit() throws Exception {
+        RestaurantTable first = newTable();
+        RestaurantTable second = newTable();
+        Order completed = seat(first);
+        Order cancelled = seat(second);
+
+        orderService.completeOrder(completed.getOrderId());
+        orderService.cancelOrder(cancelled.getOrderId());
+        awaitIdle();
+
+        assertTrue(tableRepository.findById(first.getTableId()).orElseThrow().isAvailable());
+        assertTrue(tableRepository.findById(second.getTableId()).orElseThrow().isAvailable());
+        assertEquals(1, flakyHandler.seen.get(completed.getOrderId()).get());
+        assertTrue(orderOutboxRepository.findAll().stream()
+                .noneMatch(e -> e.getOrderId() == completed.getOrderId() || e.getOrderId() == cancelled.getOrderId()));
+    }
+
+    @Test
+    void closingThroughAnEditOrASubscriptionAlsoFreesTheTable() throws Exception {
+        RestaurantTable edited = newTable();
+        RestaurantTable subscribed = newTable();
+        Order fromEdit = seat(edited);
+        Order fromSubscription = seat(subscribed);
+
+        OrderRequestDTO edit = new OrderRequestDTO();
+        edit.setStatus(OrderStatus.CANCELLED);
+        assertEquals(OrderStatus.CANCELLED, orderPlacementService.updateOrder(fromEdit.getOrderId(), edit).getStatus());
+        Client client = clientRepository.save(new Client(0, "Outbox", "Subscriber"));
+        assertEquals(OrderStatus.COMPLETED, orderService.completeForClient(fromSubscription.getOrderId(), client).getStatus());
+        awaitIdle();
+
+        assertTrue(tableRepository.findById(edited.getTableId()).orElseThrow().isAvailable());
+        assertTrue(tableRepository.findById(subscribed.getTableId()).orElseThrow().isAvailable());
+        assertEquals(1, flakyHandler.seen.get(fromEdit.getOrderId()).get());
+        assertEquals(1, flakyHandler.seen.get(fromSubscription.getOrderId()).get());
+    }
+
+    @Test
+    void aFailedEntryIsRetriedWithoutHoldingBackTheOthers() throws Exception {
+        int failing = ORDER_IDS.decrementAndGet();
+        int fine = ORDER_IDS.decrementAndGet();
+        flakyHandler.failing.add(failing);
+
+        OrderOutboxEntry failingEntry = new OrderOutboxEntry(failing, OrderChangedEvent.Type.COMPLETED, null);
+        orderOutboxDispatcher.append(failingEntry);
+        OrderOutboxEntry fineEntry = new OrderOutboxEntry(fine, OrderChangedEvent.Type.COMPLETED, null);
+        orderOutboxDispatcher.append(fineEntry);
+        awaitIdle();
+
+        assertFalse(orderOutboxRepository.existsById(fineEntry.getOutboxId()));
+        // Rescheduled once, whether the two went by in one batch or not
+        OrderOutboxEntry retry = orderOutboxRepository.findById(failingEntry.getOutboxId()).orElseThrow();
+        assertEquals(1, retry.getAttempts());
+        assertEquals("receipt printer offline", retry.getLastError());
+
+        flakyHandler.failing.remove(failing);
+        jdbcTemplate.update("UPDATE order_outbox SET next_attempt_at = ? WHERE outbox_id = ?",
+                LocalDateTime.now().minusSeconds(1), failingEntry.getOutboxId());
+        orderOutboxDispatcher.enqueueDue();
+        awaitIdle();
+
+        assertFalse(orderOutboxRepository.existsById(failingEntry.getOutboxId()));
+    }
+
+    @Test
+    void aReleaseHandedOverAgainLeavesTheNextPartySeated() {
+        RestaurantTable table = newTable();
+        Order earlier = seat(table);
+        orderService.completeOrder(earlier.getOrderId());
+        tableRepository.updateAvailability(table.getTableId(), true);
+        seat(table);
+
+        tableReleaseHandler.handle(List.of(new OrderOutboxEntry(earlier.getOrderId(), OrderChangedEvent.Type.COMPLETED, table.getTableId())));
+
+        assertFalse(tableRepository.findById(table.getTableId()).orElseThrow().isAvailable());
+    }
+
+    private Order seat(RestaurantTable table) {
+        String suffix = String.valueOf(System.nanoTime());
+        User user = userRepository.save(new User(0, "host" + suffix, "host" + suffix + "@test", "secret"));
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserId((long) user.getUserId());
+        request.setTableId((long) table.getTableId());
+        return orderPlacementService.placeOrder(request);
+    }
+
+    private RestaurantTable newTable() {
+        return tableRepository.save(new RestaurantTable(0, TABLE_NUMBERS.incrementAndGet(), 4, true));
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 100 && orderOutboxDispatcher.getPendingCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, orderOutboxDispatcher.getPendingCount());
+    }
+}
@@ -0,0 +1,222 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.*;
+import com.project.restau_management.repository.*;
+import com.project.restau_management.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Import(JdbcRoundTripCounter.class)
+class OrderPlacementServiceTest {
+
+    private static final AtomicInteger TABLE_NUMBERS = new AtomicInteger(1000);
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TableRepository tableRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private User user;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        user = userRepository.save(new User(0, "waiter" + suffix, "waiter" + suffix + "@test", "secret"));
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(new BigDecimal("2.50").add(BigDecimal.valueOf(i)));
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @Test
+    void placeOrderComputesTotalFromCatalogAndRequestPrices() {
+        OrderRequestDTO request = request(null,
+                line(products.get(0), 2, null),
+                line(products.get(1), 1, Money.parse("4.10")));
+
+        Order order = orderPlacementService.placeOrder(request);
+
+        assertEquals(Money.parse("9.10"), order.getTotalAmount());
+        List<OrderItem> items = orderItemRepository.findByOrderId(order.getOrderId());
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    void placeOrderRejectsOccupiedTable() {
+        RestaurantTable table = tableRepository.save(new RestaurantTable(0, TABLE_NUMBERS.incrementAndGet(), 4, true));
+        orderPlacementService.placeOrder(request(table, line(products.get(0), 1, null)));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> orderPlacementService.placeOrder(request(table, line(products.get(0), 1, null))));
+        assertTrue(e.getMessage().contains("already occupied"));
+    }
+
+    @Test
+    void roundTripsPerOrderDoNotGrowWithLineCount() {
+        // Users are in the second-level cache: load the fresh one so both orders find it there
+        userRepository.findById(user.getUserId());
+        long oneLine = roundTripsFor(1);
+        long twelveLines = roundTripsFor(12);
+
+        // product lookup, conditional table claim, order insert, one item batch, one product sales rollup batch
+        assertEquals(oneLine, twelveLines);
+        assertTrue(twelveLines <= 5, "expected at most 5 round trips but was " + twelveLines);
+    }
+
+    @Test
+    void updateOrderOnlyWritesTheLinesThatChanged() {
+        Order order = orderPlacementService.placeOrder(request(null,
+                line(products.get(0), 1, null),
+                line(products.get(1), 1, null),
+                line(products.get(2), 1, null)));
+        Map<Integer, OrderItem> placed = itemsByProduct(order);
+
+        // Bump the first line, keep the second, drop the third and add a fourth
+        OrderItemDTO bumped = line(products.get(0), 3, null);
+        bumped.setOrderItemId((long) placed.get(products.get(0).getProductId()).getOrderItemId());
+        OrderItemDTO kept = line(products.get(1), 1, null);
+        kept.setOrderItemId((long) placed.get(products.get(1).getProductId()).getOrderItemId());
+        OrderRequestDTO edit = request(null, bumped, kept, line(products.get(0), 1, Money.parse("1.00")));
+        edit.setVersion(order.getVersion());
+
+        Order updated = orderPlacementService.updateOrder(order.getOrderId(), edit);
+
+        // 3 x 2.50 + 3.50 + 1.00
+        assertEquals(Money.parse("12.00"), updated.getTotalAmount());
+        assertEquals(order.getVersion() + 1, updated.getVersion());
+        List<OrderItem> items = orderItemRepository.findByOrderId(order.getOrderId());
+        assertEquals(3, items.size());
+        assertTrue(items.stream().anyMatch(i -> i.getOrderItemId() == bumped.getOrderItemId() && i.getQuantity() == 3));
+        assertTrue(items.stream().anyMatch(i -> i.getOrderItemId() == kept.getOrderItemId() && i.getQuantity() == 1));
+        assertTrue(items.stream().noneMatch(i -> i.getOrderItemId() == placed.get(products.get(2).getProductId()).getOrderItemId()));
+    }
+
+    @Test
+    void updateOrderByLineIdAndQuantityKeepsProductAndPrice() {
+        OrderItemDTO noted = line(products.get(1), 1, Money.parse("4.10"));
+        noted.setDetails("sans glaçons");
+        Order order = orderPlacementService.placeOrder(request(null, line(products.get(0), 1, null), noted));
+        Map<Integer, OrderItem> placed = itemsByProduct(order);
+
+        // What the POS sends for a quantity change
+        List<OrderItemDTO> edits = new ArrayList<>();
+        for (Product product : List.of(products.get(0), products.get(1))) {
+            OrderItemDTO edit = new OrderItemDTO();
+            edit.setOrderItemId((long) placed.get(product.getProductId()).getOrderItemId());
+            edit.setQuantity(3);
+            edits.add(edit);
+        }
+        OrderRequestDTO request = request(null);
+        request.setItems(edits);
+
+        Order updated = orderPlacementService.updateOrder(order.getOrderId(), request);
+
+        // 3 x 2.50 + 3 x 4.10
+        assertEquals(Money.parse("19.80"), updated.getTotalAmount());
+        Map<Integer, OrderItem> items = itemsByProduct(order);
+        assertEquals(Money.parse("4.10"), items.get(products.get(1).getProductId()).getUnitPrice());
+        assertEquals(Money.parse("12.30"), items.get(products.get(1).getProductId()).getSubtotal());
+        assertEquals("sans glaçons", items.get(products.get(1).getProductId()).getDetails());
+        assertEquals(3, items.get(products.get(0).getProductId()).getQuantity());
+    }
+
+    @Test
+    void updateOrderWithoutLineIdsMatchesLinesByProduct() {
+        Order order = orderPlacementService.placeOrder(request(null,
+                line(products.get(0), 1, null),
+                line(products.get(1), 2, null)));
+        Map<Integer, OrderItem> placed = itemsByProduct(order);
+
+        orderPlacementService.updateOrder(order.getOrderId(), request(null,
+                line(products.get(0), 1, null),
+                line(products.get(1), 5, null)));
+
+        Map<Integer, OrderItem> updated = itemsByProduct(order);
+        assertEquals(placed.get(products.get(0).getProductId()).getOrderItemId(),
+                updated.get(products.get(0).getProductId()).getOrderItemId());
+        assertEquals(placed.get(products.get(1).getProductId()).getOrderItemId(),
+                updated.get(products.get(1).getProductId()).getOrderItemId());
+        assertEquals(5, updated.get(products.get(1).getProductId()).getQuantity());
+    }
+
+    @Test
+    void updateOrderRejectsAStaleVersion() {
+        Order order = orderPlacementService.placeOrder(request(null, line(products.get(0), 1, null)));
+
+        OrderRequestDTO first = request(null, line(products.get(0), 2, null));
+        first.setVersion(order.getVersion());
+        orderPlacementService.updateOrder(order.getOrderId(), first);
+
+        // A second terminal still holding the version it read before the first edit
+        OrderRequestDTO second = request(null, line(products.get(0), 4, null));
+        second.setVersion(order.getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderPlacementService.updateOrder(order.getOrderId(), second));
+        assertEquals(2, orderItemRepository.findByOrderId(order.getOrderId()).get(0).getQuantity());
+    }
+
+    private Map<Integer, OrderItem> itemsByProduct(Order order) {
+        return orderItemRepository.findByOrderId(order.getOrderId()).stream()
+                .collect(Collectors.toMap(i -> i.getProduct().getProductId(), Function.identity()));
+    }
+
+    private long roundTripsFor(int lines) {
+        RestaurantTable table = tableRepository.save(new RestaurantTable(0, TABLE_NUMBERS.incrementAndGet(), 4, true));
+        OrderItemDTO[] items = new OrderItemDTO[lines];
+        for (int i = 0; i < lines; i++) {
+            items[i] = line(products.get(i % products.size()), 1 + i, null);
+        }
+
+        roundTripCounter.reset();
+        orderPlacementService.placeOrder(request(table, items));
+        return roundTripCounter.count();
+    }
+
+    private OrderRequestDTO request(RestaurantTable table, OrderItemDTO... items) {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserId((long) user.getUserId());
+        if (table != null) {
+            request.setTableId((long) table.getTableId());
+        }
+        request.setItems(List.of(items));
+        return request;
+    }
+
+    private OrderItemDTO line(Product product, int quantity, Money unitPrice) {
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setProductId((long) product.getProductId());
+        dto.setQuantity(quantity);
+        dto.setUnitPrice(unitPrice);
+        return dto;
+    }
+}
@@ -0,0 +1,147 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.*;
+import com.project.restau_management.repository.*;
+import com.project.restau_management.support.JdbcRoundTripCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Import(JdbcRoundTripCounter.class)
+class OrderServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private JdbcRoundTripCounter roundTripCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private OrderOutboxDispatcher orderOutboxDispatcher;
+
+    private User user;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        user = userRepository.save(new User(0, "waiter" + suffix, "waiter" + suffix + "@test", "secret"));
+        Category category = categoryRepository.save(new Category(0, "Plats " + suffix, null));
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setPrice(new BigDecimal("2.00").add(BigDecimal.valueOf(i)));
+            product.setCategory(category);
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @Test
+    void updateOrderQuantitiesTotalsEveryLine() {
+        Order order = placeOrder(3);
+        List<OrderItem> items = orderItemRepository.findByOrderId(order.getOrderId());
+        OrderItem edited = items.get(0);
+
+        Order updated = orderService.updateOrderQuantities((long) order.getOrderId(),
+                List.of(quantity(edited, 4)));
+
+        // Untouched lines still count: 4 x the edited price, plus 1 x each of the others
+        Money expected = edited.getUnitPrice().times(4);
+        for (OrderItem item : items.subList(1, items.size())) {
+            expected = expected.plus(item.getSubtotal());
+        }
+        assertEquals(expected, updated.getTotalAmount());
+        assertEquals(4, orderItemRepository.findById(edited.getOrderItemId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void updateOrderQuantitiesRejectsLinesOfAnotherOrder() {
+        Order order = placeOrder(1);
+        OrderItem foreign = orderItemRepository.findByOrderId(placeOrder(1).getOrderId()).get(0);
+
+        assertThrows(RuntimeException.class,
+                () -> orderService.updateOrderQuantities((long) order.getOrderId(), List.of(quantity(foreign, 2))));
+        assertEquals(1, orderItemRepository.findById(foreign.getOrderItemId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void completingACancelledOrderIsRejectedWithoutAnotherQuery() throws Exception {
+        Order order = placeOrder(1);
+        assertEquals(OrderStatus.ON_GOING, order.getStatus());
+        orderService.cancelOrder(order.getOrderId());
+        // Let the outbox consumer finish with the cancellation before counting
+        for (int i = 0; i < 100 && orderOutboxDispatcher.getPendingCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+
+        roundTripCounter.reset();
+        assertThrows(IllegalStateException.class, () -> orderService.completeOrder(order.getOrderId()));
+        // Only the order lookup; the transition is checked in memory
+        assertEquals(1, roundTripCounter.count());
+        assertEquals(OrderStatus.CANCELLED, orderService.getOrderById(order.getOrderId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void roundTripsPerQuantityUpdateDoNotGrowWithLineCount() {
+        long twoLines = roundTripsFor(2);
+        long twelveLines = roundTripsFor(12);
+
+        // order lookup, lines with their products, one batched line update, order update,
+        // one product sales rollup batch
+        assertEquals(twoLines, twelveLines);
+        assertTrue(twelveLines <= 5, "expected at most 5 round trips but was " + twelveLines);
+    }
+
+    private long roundTripsFor(int lines) {
+        Order order = placeOrder(lines);
+        List<OrderItemDTO> changes = orderItemRepository.findByOrderId(order.getOrderId()).stream()
+                .map(item -> quantity(item, 3))
+                .toList();
+
+        roundTripCounter.reset();
+        orderService.updateOrderQuantities((long) order.getOrderId(), changes);
+        return roundTripCounter.count();
+    }
+
+    private Order placeOrder(int lines) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            OrderItemDTO dto = new OrderItemDTO();
+            dto.setProductId((long) products.get(i).getProductId());
+            dto.setQuantity(1);
+            items.add(dto);
+        }
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserId((long) user.getUserId());
+        request.setItems(items);
+        return orderPlacementService.placeOrder(request);
+    }
+
+    private OrderItemDTO quantity(OrderItem item, int quantity) {
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setOrderItemId((long) item.getOrderItemId());
+        dto.setQuantity(quantity);
+        return dto;
+    }
+}
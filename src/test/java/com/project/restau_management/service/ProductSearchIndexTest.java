@@ -0,0 +1,74 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = ProductSearchIndex.build(List.of(
+            product(1, "Crème brûlée", "Vanille de Madagascar", null),
+            product(2, "Café crème", "Double espresso", null),
+            product(3, "Croissant", "Pur beurre", "Sans gluten sur demande"),
+            product(4, "Tarte au citron", "Meringuée, crème de citron", null),
+            product(5, "Croque monsieur", "Jambon, emmental", null)));
+
+    @Test
+    void matchesAccentInsensitivePrefixes() {
+        assertEquals(List.of(2, 1, 4), ids(index.search("creme", 0, 10)));
+        assertEquals(List.of(1), ids(index.search("BRUL", 0, 10)));
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<Integer> ids = ids(index.search("crem", 0, 10));
+        assertEquals(4, ids.get(ids.size() - 1));
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertEquals(List.of(3), ids(index.search("croisant", 0, 10)));
+        assertEquals(List.of(5), ids(index.search("crouqe", 0, 10)));
+    }
+
+    @Test
+    void requiresEveryWordAndSearchesNotes() {
+        assertEquals(List.of(2), ids(index.search("cafe cr", 0, 10)));
+        assertEquals(List.of(3), ids(index.search("gluten", 0, 10)));
+    }
+
+    @Test
+    void paginatesResults() {
+        assertEquals(2, index.search("cr", 0, 2).size());
+        assertEquals(2, index.search("cr", 1, 2).size());
+        assertEquals(1, index.search("cr", 2, 2).size());
+        assertTrue(index.search("cr", 3, 2).isEmpty());
+    }
+
+    @Test
+    void outOfRangePagesAreEmpty() {
+        assertTrue(index.search("cr", -1, 2).isEmpty());
+        assertTrue(index.search("cr", 0, -5).isEmpty());
+        // page * size overflows an int and would wrap back to the first page
+        assertTrue(index.search("cr", 1 << 30, 4).isEmpty());
+        assertTrue(index.search("cr", Integer.MAX_VALUE, 100).isEmpty());
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getProductId).toList();
+    }
+
+    private static Product product(int id, String name, String description, String notes) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setNotes(notes);
+        product.setPrice(BigDecimal.ONE);
+        return product;
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderItemDTO;
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.dto.RevenueBucketDTO;
+import com.project.restau_management.entity.*;
+import com.project.restau_management.repository.PaymentMethodRepository;
+import com.project.restau_management.repository.ProductRepository;
+import com.project.restau_management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RollupServiceTest {
+
+    @Autowired
+    private RollupService rollupService;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void paymentWritesKeepRevenueRollupsInStepWithThePaymentsTable() {
+        PaymentStatus status = PaymentStatus.FAILED;
+        PaymentMethod card = paymentMethodRepository.save(new PaymentMethod(0, "CARD", "Visa", true, Money.ZERO));
+        LocalDate today = LocalDate.now();
+        // Other tests book payments too, so compare against what the day already held
+        RevenueBucketDTO before = today(rollupService.getRevenueByDay(status, today, today), today);
+        Money revenueBefore = paymentService.getTotalRevenue(status, today.atStartOfDay());
+        LocalDateTime startedAt = LocalDateTime.now().minusSeconds(1);
+
+        Payment first = paymentService.savePayment(payment("12.50", status, card));
+        paymentService.savePayment(payment("7.25", status, null));
+        Payment third = paymentService.savePayment(payment("3.00", status, card));
+
+        first.setAmount(Money.parse("20.00"));
+        paymentService.savePayment(first);
+        paymentService.deletePayment(third.getPaymentId());
+
+        RevenueBucketDTO daily = today(rollupService.getRevenueByDay(status, today, today), today);
+        assertEquals(before.getPaymentCount() + 2, daily.getPaymentCount());
+        assertEquals(before.getTotalAmount().plus(Money.parse("27.25")), daily.getTotalAmount());
+
+        RevenueBucketDTO byCard = rollupService.getRevenueByPaymentMethod(status, today, today).stream()
+                .filter(b -> b.getBucket().equals(String.valueOf(card.getMethodId())))
+                .findFirst().orElseThrow();
+        assertEquals(1, byCard.getPaymentCount());
+        assertEquals(Money.parse("20.00"), byCard.getTotalAmount());
+        assertEquals(revenueBefore.plus(Money.parse("27.25")), paymentService.getTotalRevenue(status, today.atStartOfDay()));
+        // A start inside the hour is summed from the payments table instead, to the same cent
+        assertEquals(Money.parse("27.25"), paymentService.getTotalRevenue(status, startedAt));
+    }
+
+    @Test
+    void refundedPaymentsCannotBeCompletedAgain() {
+        Payment payment = paymentService.savePayment(payment("9.00", PaymentStatus.COMPLETED, null));
+        payment.setStatus(PaymentStatus.REFUNDED);
+        paymentService.savePayment(payment);
+
+        Payment retry = payment("9.00", PaymentStatus.COMPLETED, null);
+        retry.setPaymentId(payment.getPaymentId());
+        assertThrows(IllegalStateException.class, () -> paymentService.savePayment(retry));
+        assertEquals(PaymentStatus.REFUNDED, paymentService.getPaymentById(payment.getPaymentId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void orderLineWritesKeepProductSalesInStepAndRebuildAgrees() {
+        User user = userRepository.save(new User(0, "sales" + System.nanoTime(), "sales" + System.nanoTime() + "@test", "secret"));
+        Product product = new Product();
+        product.setName("Pain au chocolat");
+        product.setPrice(new BigDecimal("1.40"));
+        product = productRepository.save(product);
+
+        OrderItemDTO line = new OrderItemDTO();
+        line.setProductId((long) product.getProductId());
+        line.setQuantity(3);
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserId((long) user.getUserId());
+        request.setItems(List.of(line));
+        Order order = orderPlacementService.placeOrder(request);
+
+        OrderItem item = orderItemService.getOrderItemsByOrderId(order.getOrderId()).get(0);
+        orderItemService.updateOrderItem((long) item.getOrderItemId(), 5, item.getUnitPrice());
+        assertEquals(5L, orderItemService.getTotalQuantityByProduct(product.getProductId()));
+
+        rollupService.rebuild();
+        ProductSalesRollup rebuilt = rollupService.getProductSales(product.getProductId()).orElseThrow();
+        assertEquals(5L, rebuilt.getQuantitySold());
+        assertEquals(Money.parse("7.00"), rebuilt.getRevenue());
+    }
+
+    private static RevenueBucketDTO today(List<RevenueBucketDTO> buckets, LocalDate today) {
+        return buckets.stream().filter(b -> b.getBucket().equals(today.toString())).findFirst()
+                .orElse(new RevenueBucketDTO(today.toString(), 0, Money.ZERO));
+    }
+
+    private static Payment payment(String amount, PaymentStatus status, PaymentMethod method) {
+        Payment payment = new Payment();
+        payment.setAmount(Money.parse(amount));
+        payment.setStatus(status);
+        payment.setPaymentMethod(method);
+        return payment;
+    }
+}
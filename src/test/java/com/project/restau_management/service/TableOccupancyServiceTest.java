@@ -0,0 +1,169 @@
+package com.project.restau_management.service;
+
+import com.project.restau_management.dto.OrderRequestDTO;
+import com.project.restau_management.entity.RestaurantTable;
+import com.project.restau_management.entity.User;
+import com.project.restau_management.repository.TableRepository;
+import com.project.restau_management.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TableOccupancyServiceTest {
+
+    private static final int THREADS = 32;
+    private static final AtomicInteger TABLE_NUMBERS = new AtomicInteger(5000);
+
+    @Autowired
+    private TableOccupancyService tableOccupancyService;
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    @Autowired
+    private TableRepository tableRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void eachTableIsClaimedExactlyOnceUnderContention() throws Exception {
+        List<Integer> tableIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tableIds.add(newTable().getTableId());
+        }
+
+        ConcurrentMap<Integer, AtomicInteger> winners = new ConcurrentHashMap<>();
+        List<Callable<Void>> waiters = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Integer> order = new ArrayList<>(tableIds);
+            Collections.shuffle(order);
+            waiters.add(() -> {
+                for (int tableId : order) {
+                    if (tableOccupancyService.claim(tableId)) {
+                        winners.computeIfAbsent(tableId, k -> new AtomicInteger()).incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        runTogether(waiters);
+
+        assertEquals(tableIds.size(), winners.size());
+        winners.values().forEach(count -> assertEquals(1, count.get()));
+        tableIds.forEach(id -> assertFalse(tableRepository.findById(id).orElseThrow().isAvailable()));
+    }
+
+    @Test
+    void onlyOneOrderSeatsATable() throws Exception {
+        User user = userRepository.save(new User(0, "race" + System.nanoTime(), "race" + System.nanoTime() + "@test", "secret"));
+        RestaurantTable table = newTable();
+
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Callable<Void>> waiters = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            waiters.add(() -> {
+                OrderRequestDTO request = new OrderRequestDTO();
+                request.setUserId((long) user.getUserId());
+                request.setTableId((long) table.getTableId());
+                try {
+                    orderPlacementService.placeOrder(request);
+                    placed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertTrue(e.getMessage().contains("already occupied"), e.getMessage());
+                    rejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        runTogether(waiters);
+
+        assertEquals(1, placed.get());
+        assertEquals(THREADS - 1, rejected.get());
+    }
+
+    @Test
+    void releaseOnlySucceedsForOccupiedTables() {
+        int tableId = newTable().getTableId();
+        assertFalse(tableOccupancyService.release(tableId));
+        assertTrue(tableOccupancyService.claim(tableId));
+        assertTrue(tableOccupancyService.release(tableId));
+        assertTrue(tableRepository.findById(tableId).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void occupiedGaugeFollowsClaimsAndReleases() {
+        int tableId = newTable().getTableId();
+        tableOccupancyService.resyncOccupied();
+        double before = meterRegistry.get("tables.occupied").gauge().value();
+
+        assertTrue(tableOccupancyService.claim(tableId));
+        assertEquals(before + 1, meterRegistry.get("tables.occupied").gauge().value());
+        assertEquals(tableRepository.countByIsAvailable(false), (long) meterRegistry.get("tables.occupied").gauge().value());
+
+        assertTrue(tableOccupancyService.release(tableId));
+        assertEquals(before, meterRegistry.get("tables.occupied").gauge().value());
+    }
+
+    @Test
+    void rolledBackClaimLeavesGaugeAndCountersAlone() {
+        int tableId = newTable().getTableId();
+        tableOccupancyService.resyncOccupied();
+        double before = meterRegistry.get("tables.occupied").gauge().value();
+        long claimsBefore = tableOccupancyService.getStats().get("claims");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(tableOccupancyService.claim(tableId));
+            // Not counted until the transaction commits
+            assertEquals(before, meterRegistry.get("tables.occupied").gauge().value());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(tableRepository.findById(tableId).orElseThrow().isAvailable());
+        assertEquals(before, meterRegistry.get("tables.occupied").gauge().value());
+        assertEquals(claimsBefore, tableOccupancyService.getStats().get("claims"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                assertTrue(tableOccupancyService.claim(tableId)));
+        assertEquals(before + 1, meterRegistry.get("tables.occupied").gauge().value());
+        assertEquals(claimsBefore + 1, tableOccupancyService.getStats().get("claims"));
+    }
+
+    private RestaurantTable newTable() {
+        return tableRepository.save(new RestaurantTable(0, TABLE_NUMBERS.incrementAndGet(), 4, true));
+    }
+
+    private static void runTogether(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
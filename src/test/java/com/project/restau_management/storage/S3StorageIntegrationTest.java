@@ -0,0 +1,90 @@
+package com.project.restau_management.storage;
+
+import com.project.restau_management.service.FileStorageService;
+import com.project.restau_management.service.FileStorageService.ImageVariant;
+import com.project.restau_management.support.S3StandIn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The whole upload path, variants and image serving included, against the S3 stand-in
+@SpringBootTest
+@AutoConfigureMockMvc
+class S3StorageIntegrationTest {
+
+    private static final S3StandIn S3 = startS3();
+
+    @Autowired
+    private FileStorageService fileStorageService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void s3Properties(DynamicPropertyRegistry registry) {
+        registry.add("storage.type", () -> "s3");
+        registry.add("storage.s3.endpoint", () -> S3.endpoint().toString());
+        registry.add("storage.s3.bucket", () -> "uploads");
+    }
+
+    @AfterAll
+    static void stopS3() {
+        S3.close();
+    }
+
+    @Test
+    void uploadsVariantsAndRangesGoThroughTheObjectStore() throws Exception {
+        byte[] photo = png(900, 600);
+        String relativePath = fileStorageService.storeFile(new MockMultipartFile("image", "plat.png", "image/png", photo));
+
+        assertNull(fileStorageService.getFullPath(relativePath));
+        assertTrue(fileStorageService.fileExists(relativePath));
+
+        byte[] served = mockMvc.perform(get(relativePath).header("Range", "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Arrays.copyOfRange(photo, 100, 200), served);
+
+        byte[] thumb = mockMvc.perform(get(relativePath).param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(160, ImageIO.read(new ByteArrayInputStream(thumb)).getWidth());
+        assertNotNull(fileStorageService.findVariant(relativePath, ImageVariant.MEDIUM));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static S3StandIn startS3() {
+        try {
+            return new S3StandIn();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
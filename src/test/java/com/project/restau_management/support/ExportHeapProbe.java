@@ -0,0 +1,69 @@
+package com.project.restau_management.support;
+
+import com.project.restau_management.repository.ExportConnections;
+import com.project.restau_management.repository.PaymentExportRepository.PaymentRow;
+import com.project.restau_management.repository.PaymentExportRepositoryImpl;
+import com.project.restau_management.service.ExportService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Run in its own JVM with a small -Xmx: generates payments in an on-disk H2 database, then exports
+ * all of them through the production cursor and writers into a byte-counting sink.
+ * Exits with status 0 and prints "rows=N bytes=M" only if the whole export fit in the heap.
+ */
+public final class ExportHeapProbe {
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.parseInt(args[0]);
+        ExportService.Format format = ExportService.Format.parse(args[1]);
+        Path dir = Path.of(args[2]);
+        Files.createDirectories(dir);
+        Files.deleteIfExists(dir.resolve("probe.mv.db"));
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:file:" + dir.toAbsolutePath().resolve("probe") +
+                        ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CACHE_SIZE=4096;LAZY_QUERY_EXECUTION=TRUE", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE payment_methods (method_id INT PRIMARY KEY, name VARCHAR(255))");
+        jdbc.execute("CREATE TABLE payments (payment_id INT PRIMARY KEY, amount DECIMAL(12,2), timestamp TIMESTAMP, " +
+                "status CHAR(1), transaction_id VARCHAR(255), receipt_number VARCHAR(255), " +
+                "order_id INT, payment_method_id INT)");
+        jdbc.execute("CREATE INDEX payments_timestamp ON payments (timestamp, payment_id)");
+        jdbc.update("INSERT INTO payment_methods VALUES (1, 'Visa, \"contactless\"')");
+        for (int from = 1; from <= rows; from += 100_000) {
+            int to = Math.min(rows, from + 99_999);
+            jdbc.update("INSERT INTO payments SELECT \"X\", MOD(\"X\", 1000) + 0.25, " +
+                    "DATEADD('SECOND', \"X\", TIMESTAMP '2025-01-01 00:00:00'), 'C', " +
+                    "CONCAT('TX-', \"X\"), CONCAT('R-', \"X\"), \"X\", 1 FROM SYSTEM_RANGE(?, ?)", from, to);
+        }
+
+        CountingSink sink = new CountingSink();
+        PaymentExportRepositoryImpl repository = new PaymentExportRepositoryImpl(new ExportConnections(dataSource));
+        try (Stream<PaymentRow> stream = repository.streamPaymentsBetween(
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0))) {
+            long written = new ExportService().writePayments(stream, format, sink);
+            System.out.println("rows=" + written + " bytes=" + sink.bytes);
+        }
+    }
+
+    private static final class CountingSink extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.project.restau_management.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps the application DataSource and counts every statement execution that reaches the driver.
+ * A JDBC batch counts as a single round trip, the same way the MySQL driver sends it with
+ * rewriteBatchedStatements enabled.
+ */
+@TestConfiguration
+public class JdbcRoundTripCounter implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    public void reset() {
+        roundTrips.set(0);
+    }
+
+    public long count() {
+        return roundTrips.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    private <T> T proxy(Class<T> type, T target) {
+        Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (EXECUTE_METHODS.contains(method.getName())) {
+                        roundTrips.incrementAndGet();
+                    }
+                    return wrap(result);
+                });
+        return type.cast(proxy);
+    }
+
+    private Object wrap(Object result) {
+        if (result instanceof Connection connection) {
+            return proxy(Connection.class, connection);
+        }
+        if (result instanceof CallableStatement statement) {
+            return proxy(CallableStatement.class, statement);
+        }
+        if (result instanceof PreparedStatement statement) {
+            return proxy(PreparedStatement.class, statement);
+        }
+        if (result instanceof Statement statement) {
+            return proxy(Statement.class, statement);
+        }
+        return result;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}